@@ -1,234 +1,156 @@
 package edu.curtin.saed.assignment1;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.io.IOException;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.Queue;
-import java.util.LinkedList;
-import java.util.PriorityQueue;
-import java.util.List;
-import java.util.ArrayList;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 
-public class Aircraft implements Runnable {
-    private int id;
-    private double x, y;
-    private double targetX, targetY;
-    private double speed;
-    private boolean inFlight;
-    private boolean beingServiced;
-    private int completedTrips;
-    private Airport originAirport;
-    private FlightServicingManager flightServicingManager;
-    private Statistics statistics;
+/**
+ * A thin handle onto one slot of an AircraftStateStore. Getters read the store directly and take
+ * no lock. Lifecycle changes (dispatch, take-off, landing, servicing) are each a single
+ * compare-and-set of the aircraft's AircraftState, so exactly one thread wins any race, and
+ * listeners on the store hear about every change.
+ */
+public class Aircraft {
+    private final int id;
+    private final int slot;
+    private final AircraftStateStore store;
+    private final AirportManager airportManager;
+    private final FlightServicingManager flightServicingManager;
 
-    private static final double SPEED = 1.0; // Default speed of the aircraft
     private static final Logger LOGGER = Logger.getLogger(Aircraft.class.getName());
 
-    // Constructor
-    public Aircraft(int id, Airport airport, FlightServicingManager flightServicingManager, Statistics statistics) {
+    // Constructor; allocates a slot in the store for an idle aircraft parked at the given airport
+    public Aircraft(int id, Airport airport, AircraftStateStore store, AirportManager airportManager,
+                    FlightServicingManager flightServicingManager) {
         this.id = id;
-        this.x = airport.getX();
-        this.y = airport.getY();
-        this.speed = SPEED;
-        this.inFlight = false; // Aircraft is not in flight initially
-        this.beingServiced = false; // Aircraft is not being serviced initially
-        this.completedTrips = 0;
-        this.originAirport = airport;
+        this.store = store;
+        this.slot = store.allocate(id, airport);
+        this.airportManager = airportManager;
         this.flightServicingManager = flightServicingManager;
-        this.statistics = statistics;
     }
 
-    // Start the flight to the target coordinates
-    public void startFlight(double targetX, double targetY) {
-        synchronized (this) {
-            if (beingServiced) {
-                return; // Aircraft cannot start a flight if it is being serviced
-            }
+    // Claims an idle aircraft for a flight (IDLE -> DISPATCHED); returns false if it was not idle
+    public boolean claim() {
+        return store.transition(slot, AircraftState.IDLE, AircraftState.DISPATCHED);
+    }
+
+    // Gives up a claim without flying (DISPATCHED -> IDLE)
+    public boolean unclaim() {
+        return store.transition(slot, AircraftState.DISPATCHED, AircraftState.IDLE);
+    }
 
-            this.targetX = targetX;
-            this.targetY = targetY;
-            this.inFlight = true; // Mark the aircraft as in flight
+    // Start the flight to the destination airport; the aircraft must have been claimed first
+    public boolean startFlight(Airport destinationAirport) {
+        if (getState() != AircraftState.DISPATCHED) {
+            LOGGER.log(Level.WARNING, () -> String.format("Aircraft %d cannot start a flight while %s", id, getState()));
+            return false;
         }
 
-        // Update statistics
-        if (statistics != null) {
-            statistics.onAircraftStartedFlight();
-        } else {
-            LOGGER.log(Level.WARNING, () -> "Statistics is not initialized.");
+        // Only the claiming thread gets here, so the target is set before the engine can see IN_FLIGHT
+        store.setTarget(slot, destinationAirport.getId(), destinationAirport.getX(), destinationAirport.getY());
+        if (!store.transition(slot, AircraftState.DISPATCHED, AircraftState.IN_FLIGHT)) {
+            return false;
         }
 
-        LOGGER.log(Level.INFO, () -> String.format("Aircraft %d started flight from Airport %d to (%.2f, %.2f)",
-                id, originAirport.getId(), targetX, targetY));
+        LOGGER.log(Level.INFO, () -> String.format("Aircraft %d started flight from Airport %d to Airport %d",
+                id, store.getOriginAirportId(slot), destinationAirport.getId()));
+        return true;
     }
 
-    // Land the aircraft at the destination airport
+    // Land the aircraft at the destination airport (IN_FLIGHT -> LANDED), and hand it over for servicing
     public void land(Airport destinationAirport) {
-        synchronized (this) {
-            this.inFlight = false; // Mark the aircraft as landed
-            this.originAirport = destinationAirport;
-            this.x = destinationAirport.getX();
-            this.y = destinationAirport.getY();
-
-            incrementCompletedTrips();
-
-            // Update statistics
-            if (statistics != null) {
-                statistics.onAircraftLanded();
-            } else {
-                LOGGER.log(Level.WARNING, () -> "Statistics is not initialized.");
-            }
-
-            // Request servicing if the aircraft is not already being serviced
-            if (flightServicingManager != null) {
-                if (!beingServiced) {
-                    this.beingServiced = true;
-                    flightServicingManager.addAircraftForServicing(this);
-                }
-            } else {
-                LOGGER.log(Level.WARNING, () -> "FlightServicingManager is not initialized.");
-            }
-
-            LOGGER.log(Level.INFO, () -> String.format("Aircraft %d landed at Airport %d", id, destinationAirport.getId()));
+        // The store moves the aircraft to the airport and counts the trip only if the landing wins
+        if (!store.land(slot, destinationAirport.getId(), destinationAirport.getX(), destinationAirport.getY())) {
+            return; // Only the simulation engine lands aircraft, so this is not expected
+        }
+        LOGGER.log(Level.INFO, () -> String.format("Aircraft %d landed at Airport %d", id, destinationAirport.getId()));
+
+        if (flightServicingManager == null) {
+            LOGGER.log(Level.WARNING, () -> "FlightServicingManager is not initialized.");
+        } else if (store.transition(slot, AircraftState.LANDED, AircraftState.SERVICING)) {
+            flightServicingManager.addAircraftForServicing(this);
         }
     }
 
+    // Marks servicing as finished (SERVICING -> IDLE); returns false if the aircraft was not being serviced
+    public boolean finishServicing() {
+        return store.transition(slot, AircraftState.SERVICING, AircraftState.IDLE);
+    }
+
+    // Land the aircraft at the airport it was flying to
+    public void landAtDestination() {
+        land(airportManager.getAirportById(store.getDestinationAirportId(slot)));
+    }
+
     public boolean hasLanded() {
-        synchronized (this) {
-            return !inFlight; // Return true if the aircraft is not in flight
-        }
+        return !store.isInFlight(slot); // Return true if the aircraft is not in flight
     }
 
-    public boolean isBeingServiced() {
-        synchronized (this) {
-            return beingServiced;
-        }
+    public AircraftState getState() {
+        return store.getState(slot);
     }
 
-    public void setBeingServiced(boolean beingServiced) {
-        synchronized (this) {
-            this.beingServiced = beingServiced;
-        }
+    public boolean isBeingServiced() {
+        return store.isBeingServiced(slot);
     }
 
     public boolean isInFlight() {
-        synchronized (this) {
-            return inFlight;
-        }
+        return store.isInFlight(slot);
     }
 
     public double getX() {
-        synchronized (this) {
-            return x;
-        }
+        return store.getX(slot);
     }
 
     public double getY() {
-        synchronized (this) {
-            return y;
-        }
+        return store.getY(slot);
     }
 
     public double getTargetX() {
-        synchronized (this) {
-            return targetX;
-        }
+        return store.getTargetX(slot);
     }
 
     public double getTargetY() {
-        synchronized (this) {
-            return targetY;
-        }
+        return store.getTargetY(slot);
     }
 
     public int getId() {
-        synchronized (this) {
-            return id;
-        }
+        return id;
+    }
+
+    // Returns this aircraft's index into the state store
+    public int getSlot() {
+        return slot;
     }
 
     public double getSpeed() {
-        return speed;
+        return store.getSpeed();
+    }
+
+    public int getOriginAirportId() {
+        return store.getOriginAirportId(slot);
     }
 
     public Airport getOriginAirport() {
-        return originAirport;
+        return airportManager.getAirportById(store.getOriginAirportId(slot));
     }
 
+    // Moves a grounded aircraft to another airport; published by its next state transition
     public void setOriginAirport(Airport originAirport) {
-        synchronized (this) {
-            this.originAirport = originAirport;
-        }
+        store.setOriginAirportId(slot, originAirport.getId());
     }
 
-    // Increment the number of completed trips
+    // Increment the number of completed trips (landing already counts each trip it completes)
     public void incrementCompletedTrips() {
-        synchronized (this) {
-            completedTrips++;
-            if (statistics != null) {
-                statistics.onAircraftCompletedTrip();
-            }
-        }
+        store.incrementCompletedTrips(slot);
+        store.publish();
     }
 
     public int getCompletedTripsCount() {
-        synchronized (this) {
-            return completedTrips;
-        }
+        return store.getCompletedTrips(slot);
     }
 
     public boolean hasReachedDestination() {
-        synchronized (this) {
-            return !inFlight; // Return true if the aircraft has landed
-        }
-    }
-
-    // Update the position of the aircraft towards its target destination
-    public void updatePosition() {
-        synchronized (this) {
-            if (!inFlight) {
-                return; // No need to update position if not in flight
-            }
-
-            double dx = targetX - x;
-            double dy = targetY - y;
-            double distance = Math.sqrt(dx * dx + dy * dy);
-            
-
-            if (distance < speed) {
-                x = targetX;
-                y = targetY;
-                land(originAirport); // Land the aircraft once it reaches the target
-                setBeingServiced(false);
-            } else {
-                double moveX = (dx / distance) * speed;
-                double moveY = (dy / distance) * speed;
-                x += moveX;
-                y += moveY;
-            }
-        }
-    }
-
-    @Override
-    public void run() {
-        while (true) {
-            if (inFlight) {
-                updatePosition(); // Update position if the aircraft is in flight
-            }
-
-            try {
-                Thread.sleep(100); // Sleep for 100 milliseconds
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt(); // thread interruption
-            }
-        }
+        return !store.isInFlight(slot); // Return true if the aircraft has landed
     }
 }
-
-
-
-
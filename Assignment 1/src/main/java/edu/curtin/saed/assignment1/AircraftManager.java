@@ -12,6 +12,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.Map;
@@ -22,21 +23,59 @@ import java.util.*;
 public class AircraftManager {
 
     private static final Logger LOGGER = Logger.getLogger(AircraftManager.class.getName());
+    private static final double DEFAULT_TICK_RATE = 10.0; // Simulation ticks per second
+    private static final double AIRCRAFT_SPEED = 1.0; // Grid units per second
+    private static final int DEFAULT_FLEET_SIZE = 10;
+    private static final int DEFAULT_QUEUE_CAPACITY = 32; // Waiting requests held per airport
 
     private final List<Aircraft> aircraftList = new ArrayList<>();
+    private final AircraftStateStore stateStore;
+    private final AtomicReference<FleetSnapshot> latestSnapshot = new AtomicReference<>();
+    private long snapshotPublishCount = -1; // The store's publish count when the latest snapshot was taken
     private final AirportManager airportManager;
-    private final ExecutorService planeMovementExecutor;
+    private final SimulationEngine simulationEngine;
     private final FlightServicingManager flightServicingManager;
     private final Statistics statistics;
-    private final Map<Integer, BlockingQueue<FlightRequest>> airportFlightRequestQueues = new HashMap<>();
+    private final int fleetSize;
+    private final FlightDispatcher dispatcher;
+    private final AirportMetrics airportMetrics;
+    private Aircraft[] aircraftById = new Aircraft[0];
 
     // Constructor
     public AircraftManager(AirportManager airportManager, FlightServicingManager flightServicingManager, Statistics statistics) {
+        this(airportManager, flightServicingManager, statistics, DEFAULT_FLEET_SIZE, DEFAULT_TICK_RATE);
+    }
+
+    // Constructor with an explicit fleet size and simulation tick rate (ticks per second)
+    public AircraftManager(AirportManager airportManager, FlightServicingManager flightServicingManager,
+                           Statistics statistics, int fleetSize, double tickRate) {
+        this(airportManager, flightServicingManager, statistics, fleetSize, tickRate, DEFAULT_QUEUE_CAPACITY,
+                BoundedRequestQueue.OverflowPolicy.DROP_OLDEST);
+    }
+
+    // Constructor that also bounds each airport's waiting requests, and says what to do beyond that
+    @SuppressWarnings("PMD.ExcessiveParameterList") // Mirrors the configuration it is built from
+    public AircraftManager(AirportManager airportManager, FlightServicingManager flightServicingManager,
+                           Statistics statistics, int fleetSize, double tickRate, int queueCapacity,
+                           BoundedRequestQueue.OverflowPolicy overflowPolicy) {
         this.airportManager = airportManager;
+        this.fleetSize = fleetSize;
+        this.dispatcher = new FlightDispatcher(airportManager, queueCapacity, overflowPolicy,
+                statistics != null ? statistics.getRequestWaitHistogram() : new LatencyHistogram(), null);
+        this.airportMetrics = dispatcher.getAirportMetrics();
         this.flightServicingManager = flightServicingManager;
         this.statistics = statistics;
-        this.planeMovementExecutor = Executors.newFixedThreadPool(10); // Thread pool for managing aircraft movements
+        this.stateStore = new AircraftStateStore(fleetSize, AIRCRAFT_SPEED);
+        this.simulationEngine = new SimulationEngine(tickRate); // Single thread advancing the whole fleet
+        this.simulationEngine.addTickListener(this::onTick);
+        if (statistics != null) {
+            stateStore.addTransitionListener(statistics::onTransition);
+            statistics.setAirportMetrics(airportMetrics);
+            statistics.setStateStore(stateStore);
+        }
+        stateStore.addTransitionListener(this::onTransition);
         initializeAircraft(); // Initialize aircraft after construction
+        latestSnapshot.set(stateStore.snapshot(0)); // Readers never see a missing snapshot
     }
 
     // Initializes aircraft at each airport
@@ -47,116 +86,135 @@ public class AircraftManager {
     // Sets up aircraft at each airport
     private void setupAircraft() {
         int id = 1;
-        int totalPlanes = 10;
+        int totalPlanes = fleetSize;
 
         // Distribute them across airports
         for (Airport airport : airportManager.getAirports()) {
             for (int i = 0; i < totalPlanes / airportManager.getAirports().size(); i++) {
-                Aircraft aircraft = new Aircraft(id++, airport, flightServicingManager, statistics);
+                Aircraft aircraft = new Aircraft(id++, airport, stateStore, airportManager, flightServicingManager);
                 aircraftList.add(aircraft);
             }
-            airportFlightRequestQueues.put(airport.getId(), new LinkedBlockingQueue<>());
         }
 
         // Handle remaining planes if the total number is not perfectly divisible by the number of airports
         int remainingPlanes = totalPlanes % airportManager.getAirports().size();
         for (int i = 0; i < remainingPlanes; i++) {
             Airport airport = airportManager.getAirports().get(i);
-            Aircraft aircraft = new Aircraft(id++, airport, flightServicingManager, statistics);
+            Aircraft aircraft = new Aircraft(id++, airport, stateStore, airportManager, flightServicingManager);
             aircraftList.add(aircraft);
         }
-    }
 
-    // Updates the position of each aircraft in a separate thread
-    public void startPlaneMovementUpdates() {
+        // Index every aircraft by id, and park them all in their airport's idle pool
+        int maxId = 0;
         for (Aircraft aircraft : aircraftList) {
-            planeMovementExecutor.submit(() -> {
-                while (!Thread.currentThread().isInterrupted()) {
-                    if (aircraft.isInFlight()) {
-                        aircraft.updatePosition(); // Update the aircraft's position if in flight
-                    } else {
-                        // Handle the aircraft that has landed
-                        if (aircraft.hasLanded()) {
-                            if (!aircraft.isBeingServiced()) {
-                                flightServicingManager.addAircraftForServicing(aircraft);
-                            }
-                        }
-
-                        // Handle flight requests if the aircraft is not being serviced
-                        if (!aircraft.isBeingServiced()) {
-                            BlockingQueue<FlightRequest> requestQueue = airportFlightRequestQueues.get(aircraft.getOriginAirport().getId());
-                            if (requestQueue != null && !requestQueue.isEmpty()) {
-                                FlightRequest nextRequest = requestQueue.poll(); // Get the next flight request
-                                if (nextRequest != null) {
-                                    handleFlightRequest(nextRequest); // Handle the flight request
-                                }
-                            }
-                        }
-                    }
-
-                    try {
-                        Thread.sleep(500); // Sleep to avoid busy-waiting
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt(); // Preserve interruption status
-                    }
-                }
-            });
+            maxId = Math.max(maxId, aircraft.getId());
+        }
+        aircraftById = new Aircraft[maxId + 1];
+        for (Aircraft aircraft : aircraftList) {
+            aircraftById[aircraft.getId()] = aircraft;
+            releaseAircraft(aircraft);
         }
     }
 
-    
+    // Starts the simulation engine, which advances the simulation once per tick
+    public void startPlaneMovementUpdates() {
+        simulationEngine.start();
+    }
 
-    // Handles a flight request by assigning an available aircraft
-    public void handleFlightRequest(FlightRequest request) {
-        Airport originAirport = airportManager.getAirportById(request.getOriginAirportId()); // Retrieve the origin airport based on the origin airport ID from the request
+    // Advances the simulation by one timestep, landing the flights due by then
+    private void onTick(long tick, double deltaSeconds) {
+        // Slots are allocated in list order, so a slot indexes straight into aircraftList
+        stateStore.advance(deltaSeconds, slot -> aircraftList.get(slot).landAtDestination());
+
+        // Publish a new snapshot only if something changed since the last one; flights moving on
+        // don't count, as readers place them at their own time
+        long publishCount = stateStore.getPublishCount();
+        if (publishCount != snapshotPublishCount) {
+            snapshotPublishCount = publishCount;
+            latestSnapshot.set(stateStore.snapshot(tick));
+        }
+    }
 
-        // Get an available aircraft at the origin airport
-        Aircraft availableAircraft = getAvailableAircraftAtAirport(originAirport);
+    /**
+     * Handles a flight request by assigning an idle aircraft, or queues it if none is available.
+     * Returns true if a flight was assigned as a result. If the origin's queue is full,
+     * its overflow policy applies: the request may wait for room, displace the oldest waiting
+     * request, or be dropped or rejected (and counted).
+     */
+    public boolean handleFlightRequest(FlightRequest request) {
+        return dispatcher.submit(request);
+    }
 
-        if (availableAircraft != null && !availableAircraft.isBeingServiced()) {
-            Airport destinationAirport = airportManager.getAirportById(request.getDestinationAirportId()); // Retrieve the destination airport based on the destination airport ID from the request
-            availableAircraft.startFlight(destinationAirport.getX(), destinationAirport.getY()); // Start the flight for the available aircraft, moving it to the destination airport's coordinates
+    // Removes and returns an idle aircraft parked at the given airport, or null if there is none
+    public Aircraft acquireIdleAircraft(int airportId) {
+        return dispatcher.acquireIdleAircraft(airportId);
+    }
 
-            // Log
-            LOGGER.log(Level.INFO, () -> String.format("Assigned Aircraft %d to flight from Airport %d to Airport %d",
-                    availableAircraft.getId(), request.getOriginAirportId(), request.getDestinationAirportId()));
-        } else {
-            LOGGER.log(Level.WARNING, () -> String.format("No available aircraft at Airport %d. The request is added to the queue.",
-                    originAirport.getId()));
+    // Returns an idle aircraft to the pool of the airport it is parked at, serving any waiting request
+    public void releaseAircraft(Aircraft aircraft) {
+        dispatcher.releaseAircraft(aircraft);
+    }
+
+    // Marks servicing as complete, making the aircraft available for dispatch at the given airport
+    public void completeServicing(Aircraft aircraft, Airport airport) {
+        int landedAirportId = aircraft.getOriginAirportId();
+        aircraft.setOriginAirport(airport);
+        if (aircraft.finishServicing()) { // onTransition() then hands it back to the dispatcher
+            airportMetrics.onServicingCompleted(landedAirportId, airport.getId());
+        }
+    }
 
-            // Add the flight request to the queue for the origin airport if no aircraft is available
-            airportFlightRequestQueues.get(request.getOriginAirportId()).offer(request);
+    // Returns every aircraft that becomes idle (after servicing, or an abandoned dispatch) to the dispatcher
+    private void onTransition(int slot, AircraftState from, AircraftState to, long nanosInPreviousState) {
+        if (to == AircraftState.IDLE) {
+            releaseAircraft(aircraftList.get(slot));
+        } else if (to == AircraftState.LANDED) {
+            airportMetrics.onLanded(stateStore.getOriginAirportId(slot));
         }
     }
 
-    // Returns an available aircraft at the specified airport
-    public Aircraft getAvailableAircraftAtAirport(Airport airport) {
-        return aircraftList.stream()
-                .filter(aircraft -> aircraft.getOriginAirport().equals(airport) && !aircraft.isInFlight())
-                .findFirst()
-                .orElse(null);
+    // Returns the per-airport request, landing and servicing counters
+    public AirportMetrics getAirportMetrics() {
+        return airportMetrics;
     }
 
     // Finds an aircraft by its ID
     public Aircraft getAircraftById(int aircraftId) {
-        return aircraftList.stream()
-                .filter(aircraft -> aircraft.getId() == aircraftId)
-                .findFirst()
-                .orElse(null);
-    }
-    
-    
-    // Shuts down the plane movement executor service
-    public void shutdown() {
-        planeMovementExecutor.shutdown();
-        try {
-            if (!planeMovementExecutor.awaitTermination(60, TimeUnit.SECONDS)) {
-                planeMovementExecutor.shutdownNow(); // Force shutdown if not terminated within the timeout
-            }
-        } catch (InterruptedException e) {
-            planeMovementExecutor.shutdownNow(); // Force shutdown on interruption
-            Thread.currentThread().interrupt(); // Preserve interruption status
+        if (aircraftId < 0 || aircraftId >= aircraftById.length) {
+            return null;
         }
+        return aircraftById[aircraftId];
+    }
+
+
+    // Returns the queue of requests waiting for an aircraft at the given airport, or null if unknown
+    public BoundedRequestQueue<FlightRequest> getRequestQueue(int airportId) {
+        return dispatcher.getRequestQueue(airportId);
+    }
+
+    // Returns the number of requests waiting for an aircraft, across all airports
+    public long getQueuedRequestCount() {
+        return dispatcher.getQueuedRequestCount();
+    }
+
+    // Returns the number of waiting requests discarded by the overflow policy, across all airports
+    public long getDroppedRequestCount() {
+        return dispatcher.getDroppedRequestCount();
+    }
+
+    // Returns the dispatcher matching requests with idle aircraft, for its latency figures
+    public FlightDispatcher getDispatcher() {
+        return dispatcher;
+    }
+
+    // Stops the simulation engine
+    public void shutdown() {
+        simulationEngine.stop();
+    }
+
+    // Returns the engine driving this fleet, for tick timing and tick rate control
+    public SimulationEngine getSimulationEngine() {
+        return simulationEngine;
     }
 
     // Returns the list of all aircraft managed by this manager
@@ -164,9 +222,14 @@ public class AircraftManager {
         return aircraftList;
     }
 
-    // Adds a new aircraft to the list
-    public void addAircraft(Aircraft aircraft) {
-        aircraftList.add(aircraft);
+    // Returns the fleet state as of the most recent tick; safe to call from any thread
+    public FleetSnapshot getFleetSnapshot() {
+        return latestSnapshot.get();
+    }
+
+    // Returns the struct-of-arrays store holding the state of every aircraft
+    public AircraftStateStore getStateStore() {
+        return stateStore;
     }
 }
 
@@ -0,0 +1,47 @@
+package edu.curtin.saed.assignment1;
+
+/**
+ * The lifecycle of an aircraft. Every aircraft is in exactly one of these states, and moves
+ * between them only along the transitions below, each made by a single compare-and-set:
+ *
+ *   IDLE -> DISPATCHED -> IN_FLIGHT -> LANDED -> SERVICING -> IDLE
+ *
+ * plus DISPATCHED -> IDLE, when a claimed aircraft turns out not to be needed.
+ */
+public enum AircraftState {
+    IDLE,       // Parked at an airport, available for dispatch
+    DISPATCHED, // Claimed by the dispatcher for a flight that is about to start
+    IN_FLIGHT,  // Flying to its destination
+    LANDED,     // Arrived, and being handed over for servicing
+    SERVICING;  // Being serviced at the airport it landed at
+
+    private static final AircraftState[] VALUES = values();
+
+    // Returns true if an aircraft may move directly from this state to the given one
+    public boolean canTransitionTo(AircraftState next) {
+        switch (this) {
+            case IDLE:
+                return next == DISPATCHED;
+            case DISPATCHED:
+                return next == IN_FLIGHT || next == IDLE;
+            case IN_FLIGHT:
+                return next == LANDED;
+            case LANDED:
+                return next == SERVICING;
+            case SERVICING:
+                return next == IDLE;
+            default:
+                return false;
+        }
+    }
+
+    // Returns true for the states shown as "servicing": landed and waiting, or being serviced
+    public boolean isOnGroundForServicing() {
+        return this == LANDED || this == SERVICING;
+    }
+
+    // Returns the state with the given ordinal, as stored in AircraftStateStore and FleetSnapshot
+    public static AircraftState fromCode(int code) {
+        return VALUES[code];
+    }
+}
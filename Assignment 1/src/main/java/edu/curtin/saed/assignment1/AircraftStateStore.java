@@ -0,0 +1,503 @@
+package edu.curtin.saed.assignment1;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Holds the mutable state of every aircraft in parallel primitive arrays, indexed by aircraft
+ * slot. Aircraft objects are thin handles onto one slot each. Keeping the state in flat arrays
+ * lets a tick (or any reader) sweep the whole fleet in one sequential pass, without taking a
+ * lock per aircraft or chasing pointers across the heap.
+ *
+ * Positions are only written by the simulation engine thread. Each aircraft's lifecycle state
+ * (AircraftState) is a single long per slot, packing the state with the System.nanoTime() it was
+ * entered, changed only by transition(), a compare-and-set that fails if another thread moved the
+ * aircraft first. Successful transitions are published and then reported to every
+ * TransitionListener, along with how long the aircraft spent in the state it left. Readers on
+ * other threads call synchronise() (advance() does this itself) to see other changes made before a
+ * publish().
+ *
+ * A flight is a straight line at constant speed, so it is not stepped tick by tick. Entering
+ * IN_FLIGHT records the simulated departure and arrival times, and the aircraft's position stays
+ * at its departure point; getX() and getY() (and FleetSnapshot's, for any simulated time) work out
+ * where it is on the line only when asked. The engine's advance() just moves the simulated clock
+ * on and lands the flights due by then, from a timing wheel of arrival-time buckets, so a tick
+ * costs nothing per aircraft in flight.
+ *
+ * Every write to a slot also marks its FleetSnapshot chunk as changed, so that snapshot() copies
+ * only the chunks that changed since the previous snapshot and shares the others with it.
+ */
+public class AircraftStateStore {
+
+    private static final Logger LOGGER = Logger.getLogger(AircraftStateStore.class.getName());
+    private static final VarHandle STATES = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final int STATE_BITS = 3; // Low bits of a state word; the rest hold the time it was entered
+    private static final long STATE_MASK = (1L << STATE_BITS) - 1;
+    private static final long IN_FLIGHT = AircraftState.IN_FLIGHT.ordinal();
+    private static final double WHEEL_BUCKET_SECONDS = 1.0 / 64.0;
+    private static final int WHEEL_BUCKETS = 1024; // A power of two; one lap of the wheel is 16 simulated seconds
+
+    // Callback invoked, on the transitioning thread, after each successful state transition
+    public interface TransitionListener {
+        void onTransition(int slot, AircraftState from, AircraftState to, long nanosInPreviousState);
+    }
+
+    private final List<TransitionListener> transitionListeners = new CopyOnWriteArrayList<>();
+
+    private final int capacity;
+    private final double speed;
+    private final AtomicLong mutations = new AtomicLong(0);
+    private int size;
+
+    private final int[] ids;
+    private final double[] x;
+    private final double[] y;
+    private final double[] targetX;
+    private final double[] targetY;
+    private final long[] states; // AircraftState ordinal | System.nanoTime() entered << STATE_BITS
+    private final int[] originAirportIds;
+    private final int[] destinationAirportIds;
+    private final int[] completedTrips;
+    private final double[] departureTimes; // Simulated seconds; only meaningful while IN_FLIGHT
+    private final double[] arrivalTimes;
+
+    // Snapshot chunks: marked 1 (after the write) when a slot in them changes, and cleared by snapshot()
+    private final AtomicIntegerArray changedChunks;
+    private final Object snapshotLock = new Object();
+    private FleetSnapshot.Chunk[] snapshotChunks = new FleetSnapshot.Chunk[0]; // Guarded by snapshotLock
+
+    // Simulated time, advanced only by the engine thread
+    private volatile ClockReading clock = new ClockReading(0.0, System.nanoTime(), 0.0);
+
+    // Flights started since the last advance(), guarded by departureLock, then handed to the wheel
+    private final Object departureLock = new Object();
+    private int[] departures;
+    private int departureCount;
+    private int[] drainedDepartures;
+
+    // Slots in flight, bucketed by arrival time into a timing wheel; only touched by the engine
+    // thread. Each bucket keeps its flights' arrival times alongside, so landing never has to look
+    // a slot up, and holds flights due any number of laps later, which stay until their time comes.
+    private final int[][] arrivalBuckets = new int[WHEEL_BUCKETS][];
+    private final double[][] arrivalBucketTimes = new double[WHEEL_BUCKETS][];
+    private final int[] arrivalBucketSizes = new int[WHEEL_BUCKETS];
+    private long wheelPosition; // The earliest bucket not yet wholly in the past
+    private int trackedFlights;
+
+    // Constructor; speed is shared by the whole fleet, in grid units per second
+    public AircraftStateStore(int capacity, double speed) {
+        this.capacity = capacity;
+        this.speed = speed;
+        this.ids = new int[capacity];
+        this.x = new double[capacity];
+        this.y = new double[capacity];
+        this.targetX = new double[capacity];
+        this.targetY = new double[capacity];
+        this.states = new long[capacity];
+        this.originAirportIds = new int[capacity];
+        this.destinationAirportIds = new int[capacity];
+        this.completedTrips = new int[capacity];
+        this.departureTimes = new double[capacity];
+        this.arrivalTimes = new double[capacity];
+        this.departures = new int[capacity];
+        this.drainedDepartures = new int[capacity];
+        this.changedChunks = new AtomicIntegerArray((capacity + FleetSnapshot.CHUNK_SIZE - 1) >> FleetSnapshot.CHUNK_BITS);
+    }
+
+    // Reserves the next free slot for an aircraft parked at the given airport
+    public int allocate(int id, Airport airport) {
+        synchronized (this) {
+            if (size == capacity) {
+                throw new IllegalStateException("Aircraft state store is full (capacity " + capacity + ")");
+            }
+            int slot = size++;
+            ids[slot] = id;
+            x[slot] = airport.getX();
+            y[slot] = airport.getY();
+            originAirportIds[slot] = airport.getId();
+            destinationAirportIds[slot] = airport.getId();
+            states[slot] = stateWord(AircraftState.IDLE, System.nanoTime());
+            markChanged(slot);
+            publish();
+            return slot;
+        }
+    }
+
+    // Advances the simulated clock by one timestep; the flights that arrive by then are reported by slot
+    public void advance(double deltaSeconds, IntConsumer arrivals) {
+        synchronise();
+        double now = clock.seconds + deltaSeconds;
+        clock = new ClockReading(now, System.nanoTime(), deltaSeconds);
+
+        int departed;
+        int[] batch;
+        synchronized (departureLock) {
+            departed = departureCount;
+            batch = departures;
+            departures = drainedDepartures; // Swap buffers, so departing threads are never held up for long
+            drainedDepartures = batch;
+            departureCount = 0;
+        }
+        for (int i = 0; i < departed; i++) {
+            scheduleArrival(batch[i]);
+        }
+
+        // Land the due flights of every bucket up to now; the current bucket is only partly due, so
+        // it is checked again next time
+        long last = (long) Math.floor(now / WHEEL_BUCKET_SECONDS);
+        long end = Math.min(last, wheelPosition + WHEEL_BUCKETS - 1); // Once round is enough after a long step
+        for (long bucket = wheelPosition; bucket <= end; bucket++) {
+            landDue((int) (bucket & (WHEEL_BUCKETS - 1)), now, arrivals);
+        }
+        wheelPosition = last;
+    }
+
+    // Returns the simulated time, in seconds since the store was created
+    public double getClockSeconds() {
+        return clock.seconds;
+    }
+
+    /**
+     * Returns the simulated time as of the given System.nanoTime(), for drawing flights between
+     * ticks: the time of the latest tick, moved on by the real time since, but never by more than
+     * one tick's step, so flights stop where the simulation does when it is paused or falls behind.
+     */
+    public double getClockSeconds(long nanoTime) {
+        ClockReading reading = clock;
+        double elapsed = Math.max(0.0, (nanoTime - reading.nanoTime) / 1e9);
+        return reading.seconds + Math.min(elapsed, reading.stepSeconds);
+    }
+
+    // Returns the number of flights the engine is tracking
+    public int getTrackedFlightCount() {
+        return trackedFlights;
+    }
+
+    // Adds a flight to the bucket of its arrival time, or to the current bucket if already due
+    private void scheduleArrival(int slot) {
+        double arrival = arrivalTimes[slot];
+        int bucket = (int) (Math.max((long) Math.floor(arrival / WHEEL_BUCKET_SECONDS), wheelPosition)
+                & (WHEEL_BUCKETS - 1));
+        int size = arrivalBucketSizes[bucket];
+        if (arrivalBuckets[bucket] == null) {
+            arrivalBuckets[bucket] = new int[16];
+            arrivalBucketTimes[bucket] = new double[16];
+        } else if (size == arrivalBuckets[bucket].length) {
+            arrivalBuckets[bucket] = Arrays.copyOf(arrivalBuckets[bucket], size * 2);
+            arrivalBucketTimes[bucket] = Arrays.copyOf(arrivalBucketTimes[bucket], size * 2);
+        }
+        arrivalBuckets[bucket][size] = slot;
+        arrivalBucketTimes[bucket][size] = arrival;
+        arrivalBucketSizes[bucket] = size + 1;
+        trackedFlights++;
+    }
+
+    // Reports the flights of a bucket due by now, and keeps the rest (later laps) in order
+    private void landDue(int bucket, double now, IntConsumer arrivals) {
+        int[] slots = arrivalBuckets[bucket];
+        double[] times = arrivalBucketTimes[bucket];
+        int size = arrivalBucketSizes[bucket];
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (times[i] > now) {
+                slots[kept] = slots[i];
+                times[kept] = times[i];
+                kept++;
+                continue;
+            }
+            trackedFlights--;
+            int slot = slots[i];
+            if ((states[slot] & STATE_MASK) == IN_FLIGHT) {
+                arrivals.accept(slot);
+            }
+        }
+        arrivalBucketSizes[bucket] = kept;
+    }
+
+    /**
+     * Copies the current state of the fleet into an immutable snapshot. Flights are copied as they
+     * are stored, so the snapshot can place them at any simulated time, and stays valid until the
+     * next publish(). Only the chunks changed since the previous snapshot are copied; the rest are
+     * shared with it.
+     */
+    public FleetSnapshot snapshot(long version) {
+        synchronized (snapshotLock) {
+            synchronise();
+            int count = size();
+            int chunkCount = (count + FleetSnapshot.CHUNK_SIZE - 1) >> FleetSnapshot.CHUNK_BITS;
+            FleetSnapshot.Chunk[] chunks = Arrays.copyOf(snapshotChunks, chunkCount);
+            for (int chunk = 0; chunk < chunkCount; chunk++) {
+                int from = chunk << FleetSnapshot.CHUNK_BITS;
+                int to = Math.min(from + FleetSnapshot.CHUNK_SIZE, count);
+                // Cleared before copying, so a write that lands meanwhile marks it for the next snapshot
+                boolean changed = changedChunks.get(chunk) != 0 && changedChunks.getAndSet(chunk, 0) != 0;
+                if (changed || chunks[chunk] == null || chunks[chunk].length() != to - from) {
+                    chunks[chunk] = copyChunk(from, to);
+                }
+            }
+            snapshotChunks = chunks;
+            return new FleetSnapshot(version, clock.seconds, count, chunks);
+        }
+    }
+
+    private FleetSnapshot.Chunk copyChunk(int from, int to) {
+        long trips = 0;
+        byte[] stateCodes = new byte[to - from];
+        for (int slot = from; slot < to; slot++) {
+            trips += completedTrips[slot];
+            stateCodes[slot - from] = (byte) ((long) STATES.getAcquire(states, slot) & STATE_MASK);
+        }
+        return new FleetSnapshot.Chunk(
+                Arrays.copyOfRange(ids, from, to),
+                Arrays.copyOfRange(x, from, to),
+                Arrays.copyOfRange(y, from, to),
+                Arrays.copyOfRange(targetX, from, to),
+                Arrays.copyOfRange(targetY, from, to),
+                Arrays.copyOfRange(departureTimes, from, to),
+                Arrays.copyOfRange(arrivalTimes, from, to),
+                stateCodes,
+                Arrays.copyOfRange(originAirportIds, from, to),
+                trips);
+    }
+
+    // Marks the slot's snapshot chunk as changed; called after writing to the slot
+    private void markChanged(int slot) {
+        int chunk = slot >> FleetSnapshot.CHUNK_BITS;
+        if (changedChunks.get(chunk) == 0) { // Most writes find it marked already; skip the store then
+            changedChunks.set(chunk, 1);
+        }
+    }
+
+    // Makes state changes from other threads visible to the caller
+    public void synchronise() {
+        mutations.get();
+    }
+
+    // Makes the caller's state changes visible to the next synchronise() on another thread
+    public void publish() {
+        mutations.incrementAndGet();
+    }
+
+    // Returns a count that changes whenever anything is published, e.g. to skip unchanged snapshots
+    public long getPublishCount() {
+        return mutations.get();
+    }
+
+    public int size() {
+        synchronized (this) {
+            return size;
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public double getSpeed() {
+        return speed;
+    }
+
+    public int getId(int slot) {
+        return ids[slot];
+    }
+
+    // Returns the current position; for an aircraft in flight, worked out from its flight
+    public double getX(int slot) {
+        return isInFlight(slot) ? x[slot] + (targetX[slot] - x[slot]) * progress(slot) : x[slot];
+    }
+
+    public double getY(int slot) {
+        return isInFlight(slot) ? y[slot] + (targetY[slot] - y[slot]) * progress(slot) : y[slot];
+    }
+
+    private double progress(int slot) {
+        return flightProgress(departureTimes[slot], arrivalTimes[slot], clock.seconds);
+    }
+
+    // Returns the fraction (0 to 1) of a flight completed at the given simulated time
+    /* default */ static double flightProgress(double departure, double arrival, double time) {
+        double duration = arrival - departure;
+        return duration <= 0.0 ? 1.0 : Math.min(1.0, Math.max(0.0, (time - departure) / duration));
+    }
+
+    // Returns the simulated time at which the aircraft in the given slot took off
+    public double getDepartureTime(int slot) {
+        return departureTimes[slot];
+    }
+
+    // Returns the simulated time at which the aircraft in the given slot is due to land
+    public double getArrivalTime(int slot) {
+        return arrivalTimes[slot];
+    }
+
+    // Sets the position of an aircraft on the ground (or the departure point of one about to fly)
+    public void setPosition(int slot, double newX, double newY) {
+        x[slot] = newX;
+        y[slot] = newY;
+        markChanged(slot);
+    }
+
+    public double getTargetX(int slot) {
+        return targetX[slot];
+    }
+
+    public double getTargetY(int slot) {
+        return targetY[slot];
+    }
+
+    // Sets the destination airport and its coordinates for the given slot
+    public void setTarget(int slot, int airportId, double newTargetX, double newTargetY) {
+        destinationAirportIds[slot] = airportId;
+        targetX[slot] = newTargetX;
+        targetY[slot] = newTargetY;
+        markChanged(slot);
+    }
+
+    public void addTransitionListener(TransitionListener listener) {
+        transitionListeners.add(listener);
+    }
+
+    public void removeTransitionListener(TransitionListener listener) {
+        transitionListeners.remove(listener);
+    }
+
+    public AircraftState getState(int slot) {
+        return AircraftState.fromCode((int) ((long) STATES.getAcquire(states, slot) & STATE_MASK));
+    }
+
+    /**
+     * Moves the aircraft in the given slot from one state to another, if it is still in the
+     * expected state. Returns false, changing nothing, if another thread changed the state first.
+     */
+    public boolean transition(int slot, AircraftState from, AircraftState to) {
+        long nanosInPreviousState = changeState(slot, from, to);
+        if (nanosInPreviousState < 0) {
+            return false;
+        }
+        announce(slot, from, to, nanosInPreviousState);
+        return true;
+    }
+
+    /**
+     * Lands the aircraft in the given slot (IN_FLIGHT -> LANDED) at the given airport. Only if the
+     * transition succeeds does its origin become that airport, its position that of the airport and
+     * its trip count go up, all before listeners hear of the landing. Returns false, changing
+     * nothing, if the aircraft was not in flight.
+     */
+    public boolean land(int slot, int airportId, double airportX, double airportY) {
+        long nanosInPreviousState = changeState(slot, AircraftState.IN_FLIGHT, AircraftState.LANDED);
+        if (nanosInPreviousState < 0) {
+            return false;
+        }
+        originAirportIds[slot] = airportId;
+        x[slot] = airportX;
+        y[slot] = airportY;
+        completedTrips[slot]++;
+        markChanged(slot);
+        announce(slot, AircraftState.IN_FLIGHT, AircraftState.LANDED, nanosInPreviousState);
+        return true;
+    }
+
+    // Compare-and-sets the state; returns the nanoseconds spent in the previous state, or -1 if it had changed
+    private long changeState(int slot, AircraftState from, AircraftState to) {
+        if (!from.canTransitionTo(to)) {
+            throw new IllegalArgumentException("Invalid aircraft state transition: " + from + " -> " + to);
+        }
+        long current = (long) STATES.getAcquire(states, slot);
+        if ((current & STATE_MASK) != from.ordinal()) {
+            return -1;
+        }
+        if (to == AircraftState.IN_FLIGHT) {
+            planFlight(slot); // Before the CAS, so whoever sees IN_FLIGHT also sees the flight
+        }
+        long now = System.nanoTime();
+        if (!STATES.compareAndSet(states, slot, current, stateWord(to, now))) {
+            return -1; // The entry time only changes with the state, so the state changed
+        }
+        long nanosInPreviousState = Math.max(0, ((now << STATE_BITS) - (current & ~STATE_MASK)) >> STATE_BITS);
+        markChanged(slot);
+        if (to == AircraftState.IN_FLIGHT) {
+            synchronized (departureLock) {
+                departures[departureCount++] = slot; // The engine schedules its arrival next tick
+            }
+        }
+        return nanosInPreviousState;
+    }
+
+    // Publishes a state change and tells the listeners about it
+    private void announce(int slot, AircraftState from, AircraftState to, long nanosInPreviousState) {
+        publish();
+        for (TransitionListener listener : transitionListeners) {
+            try {
+                listener.onTransition(slot, from, to, nanosInPreviousState);
+            } catch (RuntimeException e) { // NOPMD - one faulty listener must not block the lifecycle
+                LOGGER.log(Level.SEVERE, e, () -> "Transition listener failed on " + from + " -> " + to);
+            }
+        }
+    }
+
+    // Records a flight from the current position to the target, departing now in simulated time
+    private void planFlight(int slot) {
+        double dx = targetX[slot] - x[slot];
+        double dy = targetY[slot] - y[slot];
+        double departure = clock.seconds;
+        departureTimes[slot] = departure;
+        arrivalTimes[slot] = departure + Math.sqrt(dx * dx + dy * dy) / speed;
+    }
+
+    private static long stateWord(AircraftState state, long enteredNanos) {
+        return enteredNanos << STATE_BITS | state.ordinal();
+    }
+
+    public boolean isInFlight(int slot) {
+        return getState(slot) == AircraftState.IN_FLIGHT;
+    }
+
+    public boolean isBeingServiced(int slot) {
+        return getState(slot).isOnGroundForServicing();
+    }
+
+    public int getOriginAirportId(int slot) {
+        return originAirportIds[slot];
+    }
+
+    public void setOriginAirportId(int slot, int airportId) {
+        originAirportIds[slot] = airportId;
+        markChanged(slot);
+    }
+
+    public int getDestinationAirportId(int slot) {
+        return destinationAirportIds[slot];
+    }
+
+    public int getCompletedTrips(int slot) {
+        return completedTrips[slot];
+    }
+
+    public void incrementCompletedTrips(int slot) {
+        completedTrips[slot]++;
+        markChanged(slot);
+    }
+
+    // The simulated time of the latest tick, with the System.nanoTime() it was reached and the step to it
+    private static final class ClockReading {
+        private final double seconds;
+        private final long nanoTime;
+        private final double stepSeconds;
+
+        // Constructor
+        private ClockReading(double seconds, long nanoTime, double stepSeconds) {
+            this.seconds = seconds;
+            this.nanoTime = nanoTime;
+            this.stepSeconds = stepSeconds;
+        }
+    }
+}
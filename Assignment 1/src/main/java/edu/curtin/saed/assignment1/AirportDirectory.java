@@ -0,0 +1,196 @@
+package edu.curtin.saed.assignment1;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An immutable index of airports, supporting lookup by id and by location.
+ *
+ * Airports are stored densely by id, so getById() is a single array access. For location queries
+ * the world is divided into a uniform grid of square cells, each listing the airports inside it
+ * (in compressed form: one flat array of airport indices plus a start offset per cell). Nearest
+ * and within-radius queries only visit the handful of cells around the query point, so their cost
+ * does not grow with the total number of airports.
+ */
+public final class AirportDirectory {
+
+    private static final int MIN_CELLS = 16;
+    private static final int CELLS_PER_AIRPORT = 4;
+
+    private final Airport[] airportsById;
+    private final Airport[] airports;
+    private final double cellSize;
+    private final double minX;
+    private final double minY;
+    private final int cellsX;
+    private final int cellsY;
+    private final int[] cellStart;
+    private final int[] cellAirports;
+
+    // Constructor; cellSize is best set to roughly the typical spacing between airports
+    public AirportDirectory(List<Airport> airportList, double cellSize) {
+        if (!(cellSize > 0.0)) {
+            throw new IllegalArgumentException("Cell size must be positive: " + cellSize);
+        }
+        this.airports = airportList.toArray(new Airport[0]);
+
+        int maxId = -1;
+        double lowX = 0.0;
+        double lowY = 0.0;
+        double highX = 0.0;
+        double highY = 0.0;
+        for (int i = 0; i < airports.length; i++) {
+            Airport airport = airports[i];
+            maxId = Math.max(maxId, airport.getId());
+            if (i == 0) {
+                lowX = highX = airport.getX();
+                lowY = highY = airport.getY();
+            } else {
+                lowX = Math.min(lowX, airport.getX());
+                lowY = Math.min(lowY, airport.getY());
+                highX = Math.max(highX, airport.getX());
+                highY = Math.max(highY, airport.getY());
+            }
+        }
+
+        this.airportsById = new Airport[maxId + 1];
+        for (Airport airport : airports) {
+            if (airport.getId() < 0) {
+                throw new IllegalArgumentException("Airport ids must not be negative: " + airport.getId());
+            }
+            airportsById[airport.getId()] = airport;
+        }
+
+        // Never use more cells than a few per airport, however sparse the airports are
+        double maxCells = Math.max(MIN_CELLS, CELLS_PER_AIRPORT * airports.length);
+        double areaCellSize = Math.sqrt((highX - lowX + cellSize) * (highY - lowY + cellSize) / maxCells);
+        this.cellSize = Math.max(cellSize, areaCellSize);
+        this.minX = lowX;
+        this.minY = lowY;
+        this.cellsX = (int) Math.floor((highX - lowX) / this.cellSize) + 1;
+        this.cellsY = (int) Math.floor((highY - lowY) / this.cellSize) + 1;
+
+        // Counting sort of airports into cells
+        this.cellStart = new int[cellsX * cellsY + 1];
+        int[] cellOf = new int[airports.length];
+        for (int i = 0; i < airports.length; i++) {
+            cellOf[i] = cellIndex(cellX(airports[i].getX()), cellY(airports[i].getY()));
+            cellStart[cellOf[i] + 1]++;
+        }
+        for (int c = 0; c < cellsX * cellsY; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        this.cellAirports = new int[airports.length];
+        int[] fill = Arrays.copyOf(cellStart, cellsX * cellsY);
+        for (int i = 0; i < airports.length; i++) {
+            cellAirports[fill[cellOf[i]]++] = i;
+        }
+    }
+
+    public int size() {
+        return airports.length;
+    }
+
+    // Returns the airport with the given id, or null if there is none
+    public Airport getById(int id) {
+        if (id < 0 || id >= airportsById.length) {
+            return null;
+        }
+        return airportsById[id];
+    }
+
+    // Returns the airport closest to (x, y), or null if the directory is empty
+    public Airport findNearest(double x, double y) {
+        if (airports.length == 0) {
+            return null;
+        }
+        int centreX = cellX(x);
+        int centreY = cellY(y);
+        int maxRing = Math.max(Math.max(centreX, cellsX - 1 - centreX), Math.max(centreY, cellsY - 1 - centreY));
+        Airport best = null;
+        double bestDistanceSq = Double.MAX_VALUE;
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (int cy = centreY - ring; cy <= centreY + ring; cy++) {
+                for (int cx = centreX - ring; cx <= centreX + ring; cx++) {
+                    boolean onRing = Math.abs(cx - centreX) == ring || Math.abs(cy - centreY) == ring;
+                    if (!onRing || cx < 0 || cy < 0 || cx >= cellsX || cy >= cellsY) {
+                        continue;
+                    }
+                    int cell = cellIndex(cx, cy);
+                    for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                        Airport airport = airports[cellAirports[k]];
+                        double distanceSq = distanceSq(airport, x, y);
+                        if (distanceSq < bestDistanceSq) {
+                            bestDistanceSq = distanceSq;
+                            best = airport;
+                        }
+                    }
+                }
+            }
+            // Anything in a further ring is at least ring * cellSize away
+            double searched = ring * cellSize;
+            if (best != null && bestDistanceSq <= searched * searched) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    // Returns every airport within the given distance of (x, y)
+    public List<Airport> findWithinRadius(double x, double y, double radius) {
+        List<Airport> result = new ArrayList<>();
+        if (airports.length == 0 || radius < 0.0) {
+            return result;
+        }
+        int fromX = Math.max(0, cellX(x - radius));
+        int toX = Math.min(cellsX - 1, cellX(x + radius));
+        int fromY = Math.max(0, cellY(y - radius));
+        int toY = Math.min(cellsY - 1, cellY(y + radius));
+        double radiusSq = radius * radius;
+        for (int cy = fromY; cy <= toY; cy++) {
+            for (int cx = fromX; cx <= toX; cx++) {
+                int cell = cellIndex(cx, cy);
+                for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                    Airport airport = airports[cellAirports[k]];
+                    if (distanceSq(airport, x, y) <= radiusSq) {
+                        result.add(airport);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    // Returns the airport located within tolerance of (x, y), or null if there is none
+    public Airport findAt(double x, double y, double tolerance) {
+        Airport nearest = findNearest(x, y);
+        if (nearest != null && distanceSq(nearest, x, y) <= tolerance * tolerance) {
+            return nearest;
+        }
+        return null;
+    }
+
+    private int cellX(double x) {
+        return clamp((int) Math.floor((x - minX) / cellSize), cellsX);
+    }
+
+    private int cellY(double y) {
+        return clamp((int) Math.floor((y - minY) / cellSize), cellsY);
+    }
+
+    private int cellIndex(int cx, int cy) {
+        return cy * cellsX + cx;
+    }
+
+    private static int clamp(int cell, int cells) {
+        return Math.max(0, Math.min(cells - 1, cell));
+    }
+
+    private static double distanceSq(Airport airport, double x, double y) {
+        double dx = airport.getX() - x;
+        double dy = airport.getY() - y;
+        return dx * dx + dy * dy;
+    }
+}
@@ -3,45 +3,59 @@ package edu.curtin.saed.assignment1;
 import java.util.*;
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Random;
 
 public class AirportManager {
     private List<Airport> airports; 
+    private AirportDirectory directory;
+    private final double worldWidth;
+    private final double worldHeight;
+    private final int airportCount;
+    private final long seed;
     private static final double MIN_DISTANCE = 1.0; // Minimum distance allowed between airports
+    private static final double COORDINATE_TOLERANCE = 1e-9; // How close counts as "at" an airport
 
-    // Constructor 
+    // Constructor for the default 10 x 10 world with 10 airports
     public AirportManager() {
+        this(10.0, 10.0, 10, System.nanoTime());
+    }
+
+    // Constructor for a world of the given size and airport count; the seed makes placement repeatable
+    public AirportManager(double worldWidth, double worldHeight, int airportCount, long seed) {
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+        this.airportCount = airportCount;
+        this.seed = seed;
         airports = new ArrayList<>(); 
+        directory = new AirportDirectory(airports, MIN_DISTANCE);
     }
 
-    // Method to set up airports with random coordinates ensuring they are not too close to each other
+    // Method to set up airports at random coordinates, all at least MIN_DISTANCE apart
     public void setupAirports() {
-        Random random = new Random(); // Random number generator for airport coordinates
-        for (int i = 0; i < 10; i++) { // Create 10 airports
-            double x, y; // Coordinates for the new airport
-            boolean tooClose; 
-            do {
-                x = random.nextDouble() * 10; 
-                y = random.nextDouble() * 10; 
-                tooClose = isTooCloseToOtherAirports(x, y); // Check if the new airport is too close to others
-            } while (tooClose); // Repeat until a valid location is found
+        // Poisson-disk sampling stops once airportCount points are placed, so this costs time in
+        // proportion to the airport count, not the size of the world
+        double[] points = new PoissonDiskSampler(worldWidth, worldHeight, MIN_DISTANCE, seed).sample(airportCount);
+        int placed = points.length / 2;
+        if (placed < airportCount) {
+            throw new IllegalStateException(String.format(
+                    "Cannot fit %d airports at least %.1f apart in a %.1f x %.1f world (placed %d)",
+                    airportCount, MIN_DISTANCE, worldWidth, worldHeight, placed));
+        }
 
-            Airport airport = new Airport(i, x, y); // Create a new Airport object
+        airports = new ArrayList<>(airportCount);
+        for (int i = 0; i < airportCount; i++) {
+            Airport airport = new Airport(i, points[2 * i], points[2 * i + 1]); // Create a new Airport object
             airports.add(airport); // Add the new airport to the list
         }
+        directory = new AirportDirectory(airports, MIN_DISTANCE); // Index the airports by id and location
         System.out.println("Airports initialized: " + airports.size()); // Print the number of airports initialized
     }
 
-    // to check if a proposed airport location is too close to any existing airport
-    private boolean isTooCloseToOtherAirports(double x, double y) {
-        for (Airport airport : airports) {
-            // Calculate the distance between the new location and the current airport
-            double distance = Math.sqrt(Math.pow(airport.getX() - x, 2) + Math.pow(airport.getY() - y, 2));
-            if (distance < MIN_DISTANCE) {
-                return true; // Return true if the new airport is too close to an existing one
-            }
-        }
-        return false; // Return false if the new airport is sufficiently far from all existing ones
+    public double getWorldWidth() {
+        return worldWidth;
+    }
+
+    public double getWorldHeight() {
+        return worldHeight;
     }
 
     public List<Airport> getAirports() {
@@ -50,19 +64,26 @@ public class AirportManager {
 
     // Method to find an airport by its ID
     public Airport getAirportById(int id) {
-        return airports.stream() // Stream through the list of airports
-            .filter(airport -> airport.getId() == id) // Filter airports by ID
-            .findFirst() // Get the first match if it exists
-            .orElse(null); // Return null if no airport is found with the given ID
+        return directory.getById(id); // Return null if no airport is found with the given ID
     }
     
     // Method to find an airport by its coordinates
     public Airport getAirportByCoordinates(double x, double y) {
-        return airports.stream() 
-            .filter(airport -> airport.getX() == x && airport.getY() == y) 
-            .findFirst() 
-            .orElse(null); // Return null if no airport is found at the given coordinates
+        return directory.findAt(x, y, COORDINATE_TOLERANCE); // Return null if no airport is found at the given coordinates
+    }
+
+    // Method to find the airport closest to the given coordinates
+    public Airport getNearestAirport(double x, double y) {
+        return directory.findNearest(x, y);
     }
-}
 
+    // Method to find all airports within the given distance of the coordinates
+    public List<Airport> getAirportsWithinRadius(double x, double y, double radius) {
+        return directory.findWithinRadius(x, y, radius);
+    }
 
+    // Returns the spatial index over the current set of airports
+    public AirportDirectory getDirectory() {
+        return directory;
+    }
+}
@@ -0,0 +1,286 @@
+package edu.curtin.saed.assignment1;
+
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Per-airport counters, so that a single congested airport stands out from the global totals.
+ * Each counter is a LongAdder per airport: the intake, dispatch, servicing and simulation threads
+ * all update them at once, and a LongAdder spreads such updates over separate cells instead of
+ * contending on one value. The number of waiting requests is read from the dispatcher's queues
+ * rather than counted.
+ *
+ * Once startSampling() is called, the requests received at each airport are sampled every five
+ * seconds and folded into exponentially weighted 1 and 5 minute rates, as a meter does: each
+ * airport keeps only its two rates and its last count, rather than a history of samples. They are
+ * allocated on the first call, so unsampled (headless, benchmark) runs do not pay for them.
+ */
+public class AirportMetrics {
+
+    // The counters kept for every airport
+    public enum Counter {
+        REQUESTS_RECEIVED,
+        REQUESTS_DISPATCHED,
+        LANDINGS,
+        SERVICING_COMPLETED
+    }
+
+    private static final long SAMPLE_INTERVAL_SECONDS = 5;
+    private static final double ONE_MINUTE_SECONDS = 60;
+    private static final double FIVE_MINUTES_SECONDS = 300;
+    private static final Counter[] COUNTERS = Counter.values();
+
+    private final int[] airportIds;
+    private final int airportSlots;
+    private final LongAdder[][] counters;     // [counter][airport id]
+    private final LongAdder[] servicingInProgress;
+    private final IntToLongFunction queueDepthSource;
+
+    // Rates of requests received, guarded by this
+    private double[] oneMinuteRates;          // Per second, indexed by airport id
+    private double[] fiveMinuteRates;
+    private long[] lastCounts;                // Requests received at the last sample
+    private long lastSampleNanos;
+    private boolean sampled;                  // True once lastCounts holds a sample
+    private ScheduledFuture<?> sampling;
+    private int[] busiestHeap = new int[0];   // Reused by getBusiest()
+
+    // Constructor; queueDepthSource gives the number of requests waiting at an airport
+    public AirportMetrics(AirportManager airportManager, IntToLongFunction queueDepthSource) {
+        List<Airport> airports = airportManager.getAirports();
+        this.airportIds = new int[airports.size()];
+        int maxAirportId = 0;
+        for (int i = 0; i < airportIds.length; i++) {
+            airportIds[i] = airports.get(i).getId();
+            maxAirportId = Math.max(maxAirportId, airportIds[i]);
+        }
+        this.airportSlots = maxAirportId + 1;
+        this.queueDepthSource = queueDepthSource;
+        this.counters = new LongAdder[COUNTERS.length][airportSlots];
+        for (LongAdder[] perAirport : counters) {
+            for (int airportId = 0; airportId < airportSlots; airportId++) {
+                perAirport[airportId] = new LongAdder();
+            }
+        }
+        this.servicingInProgress = new LongAdder[airportSlots];
+        for (int airportId = 0; airportId < airportSlots; airportId++) {
+            servicingInProgress[airportId] = new LongAdder();
+        }
+    }
+
+    public void onRequestReceived(int airportId) {
+        increment(Counter.REQUESTS_RECEIVED, airportId);
+    }
+
+    public void onRequestDispatched(int airportId) {
+        increment(Counter.REQUESTS_DISPATCHED, airportId);
+    }
+
+    // An aircraft landed at the airport, and is waiting for or undergoing servicing there
+    public void onLanded(int airportId) {
+        increment(Counter.LANDINGS, airportId);
+        if (isKnown(airportId)) {
+            servicingInProgress[airportId].increment();
+        }
+    }
+
+    // An aircraft finished servicing at the airport. Its landing may have been counted at another
+    // airport, if servicing moved it, so the in-progress count is adjusted at both
+    public void onServicingCompleted(int landedAirportId, int servicedAirportId) {
+        increment(Counter.SERVICING_COMPLETED, servicedAirportId);
+        if (isKnown(landedAirportId)) {
+            servicingInProgress[landedAirportId].decrement();
+        }
+    }
+
+    private void increment(Counter counter, int airportId) {
+        if (isKnown(airportId)) {
+            counters[counter.ordinal()][airportId].increment();
+        }
+    }
+
+    private boolean isKnown(int airportId) {
+        return airportId >= 0 && airportId < airportSlots;
+    }
+
+    // Returns the total of the given counter at one airport since the simulation started
+    public long getCount(Counter counter, int airportId) {
+        return isKnown(airportId) ? counters[counter.ordinal()][airportId].sum() : 0;
+    }
+
+    // Returns the number of requests waiting for an aircraft at the airport
+    public long getQueueDepth(int airportId) {
+        return isKnown(airportId) ? queueDepthSource.applyAsLong(airportId) : 0;
+    }
+
+    // Returns the number of aircraft landed at the airport and not yet serviced
+    public long getServicingInProgress(int airportId) {
+        return isKnown(airportId) ? servicingInProgress[airportId].sum() : 0;
+    }
+
+    // Returns the requests received per second at the airport, averaged exponentially over about a minute
+    public double getOneMinuteRate(int airportId) {
+        synchronized (this) {
+            return isKnown(airportId) && oneMinuteRates != null ? oneMinuteRates[airportId] : 0;
+        }
+    }
+
+    // Returns the requests received per second at the airport, averaged exponentially over about five minutes
+    public double getFiveMinuteRate(int airportId) {
+        synchronized (this) {
+            return isKnown(airportId) && fiveMinuteRates != null ? fiveMinuteRates[airportId] : 0;
+        }
+    }
+
+    // Starts updating the rates on the given scheduler
+    public void startSampling(ScheduledExecutorService scheduler) {
+        synchronized (this) {
+            if (oneMinuteRates == null) {
+                oneMinuteRates = new double[airportSlots];
+                fiveMinuteRates = new double[airportSlots];
+                lastCounts = new long[airportSlots];
+            }
+            if (sampling == null) {
+                sample(); // The first rates are measured from now
+                sampling = scheduler.scheduleAtFixedRate(this::sample, SAMPLE_INTERVAL_SECONDS,
+                        SAMPLE_INTERVAL_SECONDS, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    // Stops updating the rates; they keep their last values
+    public void stopSampling() {
+        synchronized (this) {
+            if (sampling != null) {
+                sampling.cancel(false);
+                sampling = null;
+            }
+        }
+    }
+
+    // Folds the requests received since the last sample into each airport's rates
+    private void sample() {
+        long now = System.nanoTime();
+        LongAdder[] received = counters[Counter.REQUESTS_RECEIVED.ordinal()];
+        synchronized (this) {
+            boolean first = !sampled;
+            double elapsedSeconds = (now - lastSampleNanos) / 1e9;
+            double oneMinuteAlpha = first ? 0 : -Math.expm1(-elapsedSeconds / ONE_MINUTE_SECONDS);
+            double fiveMinuteAlpha = first ? 0 : -Math.expm1(-elapsedSeconds / FIVE_MINUTES_SECONDS);
+            for (int airportId : airportIds) {
+                long count = received[airportId].sum();
+                if (!first) {
+                    double rate = (count - lastCounts[airportId]) / elapsedSeconds;
+                    oneMinuteRates[airportId] += oneMinuteAlpha * (rate - oneMinuteRates[airportId]);
+                    fiveMinuteRates[airportId] += fiveMinuteAlpha * (rate - fiveMinuteRates[airportId]);
+                }
+                lastCounts[airportId] = count;
+            }
+            lastSampleNanos = now;
+            sampled = true;
+        }
+    }
+
+    /**
+     * Returns the ids of (up to) the given number of airports with the highest one minute request
+     * rate, busiest first; ties go to the most requests received overall, then the lowest id. Only the chosen few are
+     * kept while ranking, in a heap of airport ids reused from call to call.
+     */
+    public int[] getBusiest(int limit) {
+        int count = Math.max(0, Math.min(limit, airportIds.length));
+        synchronized (this) {
+            if (busiestHeap.length < count) {
+                busiestHeap = new int[count];
+            }
+            int[] heap = busiestHeap; // Least busy of those chosen at the root
+            int size = 0;
+            for (int airportId : airportIds) {
+                if (size < count) {
+                    heap[size] = airportId;
+                    siftUp(heap, size);
+                    size++;
+                } else if (count > 0 && isBusier(airportId, heap[0])) {
+                    heap[0] = airportId;
+                    siftDown(heap, 0, size);
+                }
+            }
+            int[] result = new int[size];
+            for (int i = size - 1; i >= 0; i--) { // Least busy first out of the heap, so fill from the back
+                result[i] = heap[0];
+                heap[0] = heap[i];
+                siftDown(heap, 0, i);
+            }
+            return result;
+        }
+    }
+
+    // Returns true if airport a ranks above airport b; called with the lock held
+    private boolean isBusier(int a, int b) {
+        double rateA = oneMinuteRates == null ? 0 : oneMinuteRates[a];
+        double rateB = oneMinuteRates == null ? 0 : oneMinuteRates[b];
+        if (rateA != rateB) {
+            return rateA > rateB;
+        }
+        LongAdder[] received = counters[Counter.REQUESTS_RECEIVED.ordinal()];
+        long countA = received[a].sum();
+        long countB = received[b].sum();
+        return countA != countB ? countA > countB : a < b;
+    }
+
+    private void siftUp(int[] heap, int index) {
+        int child = index;
+        while (child > 0) {
+            int parent = (child - 1) / 2;
+            if (!isBusier(heap[parent], heap[child])) {
+                return;
+            }
+            swap(heap, parent, child);
+            child = parent;
+        }
+    }
+
+    private void siftDown(int[] heap, int index, int size) {
+        int parent = index;
+        while (true) {
+            int least = parent;
+            for (int child = 2 * parent + 1; child <= 2 * parent + 2 && child < size; child++) {
+                if (isBusier(heap[least], heap[child])) {
+                    least = child;
+                }
+            }
+            if (least == parent) {
+                return;
+            }
+            swap(heap, parent, least);
+            parent = least;
+        }
+    }
+
+    private static void swap(int[] heap, int i, int j) {
+        int held = heap[i];
+        heap[i] = heap[j];
+        heap[j] = held;
+    }
+
+    /**
+     * Describes the airports with the highest one minute request rate, one per line,
+     * with their queue depth and servicing load: the place to look for a bottleneck.
+     */
+    public String describeBusiest(int limit) {
+        StringBuilder builder = new StringBuilder();
+        for (int airportId : getBusiest(limit)) {
+            builder.append(String.format("Airport %d: received %d (%.2f/s 1m, %.2f/s 5m), dispatched %d, "
+                            + "waiting %d, landings %d, servicing %d, serviced %d%n", airportId,
+                    getCount(Counter.REQUESTS_RECEIVED, airportId),
+                    getOneMinuteRate(airportId), getFiveMinuteRate(airportId),
+                    getCount(Counter.REQUESTS_DISPATCHED, airportId), getQueueDepth(airportId),
+                    getCount(Counter.LANDINGS, airportId), getServicingInProgress(airportId),
+                    getCount(Counter.SERVICING_COMPLETED, airportId)));
+        }
+        return builder.toString();
+    }
+}
@@ -4,12 +4,14 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
+import java.io.IOException;
 import java.util.List;
 import java.util.ArrayList;
 import java.awt.event.*;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
 import javax.swing.SwingUtilities;
-import javax.swing.Timer; 
 /**
  * This is demonstration code intended for you to modify. Currently, it sets up a rudimentary
  * Swing GUI with the basic elements required for the assignment.
@@ -30,38 +32,80 @@ import javax.swing.Timer;
 
 
 public class App {
+    private static final Logger LOGGER = Logger.getLogger(App.class.getName());
+    private static final long PERCENTILE_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
     private static PlaneController controller;
     private static Statistics statistics;
     private static EventManager eventManager;
-    private static AircraftManager aircraftManager;
     private static AirportManager airportManager;
-    private static FlightServicingManager flightServicingManager; 
     private static boolean isSimulationRunning = false; 
     private static GridArea gridArea; 
     private static JLabel statusText;
-    private static JTextArea textArea;
-    private static Timer simulationTimer; // Fixed the fully qualified name issue
+    private static EventLog eventLog;                  // The most recent departures, landings and servicing
+    private static EventLogListModel eventLogModel;
+    private static JList<SimulationEvent> eventList;
+    private static UiUpdateCoalescer uiUpdates; // At most one UI refresh per frame, however many events
     private static List<GridAreaIcon> airportIcons = new ArrayList<>();
+    private static GridRenderer gridRenderer; // Draws the map off the Event Dispatch Thread
+    private static SimulationMBeans managementBeans;
+    private static PrometheusExporter metricsExporter;
+
+    // Percentiles shown in the status line, refreshed at most once per PERCENTILE_REFRESH_NANOS; EDT only
+    private static double waitP99Millis;
+    private static double servicingP99Millis;
+    private static long percentilesRefreshedNanos;
+    private static boolean percentilesRefreshed;
 
     public static void main(String[] args) {
-        SwingUtilities.invokeLater(App::start);
+        SimulationConfig config;
+        try {
+            config = SimulationConfig.fromArgs(args); // Scenario from --config=file and/or --key=value options
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Invalid simulation configuration: " + e.getMessage());
+            return;
+        }
+        SwingUtilities.invokeLater(() -> start(config));
     }
 
     public static void start() {
+        start(new SimulationConfig());
+    }
+
+    public static void start(SimulationConfig config) {
         JFrame window = new JFrame("Air Traffic Simulator");
 
-        airportManager = new AirportManager();
+        airportManager = new AirportManager(config.getWorldWidth(), config.getWorldHeight(),
+                config.getAirportCount(), config.getSeed());
         airportManager.setupAirports();         
-        statistics = new Statistics(aircraftManager);        
-        controller = new PlaneController(airportManager, statistics);
-        flightServicingManager = new FlightServicingManager(controller::handleServicingRequest); 
-        aircraftManager = new AircraftManager(airportManager, flightServicingManager, statistics);
+        statistics = new Statistics();
+        controller = new PlaneController(airportManager, statistics, config);
+        managementBeans = SimulationMBeans.register(controller, statistics); // For JConsole / Mission Control
+        if (config.getMetricsPort() > 0) {
+            try {
+                metricsExporter = new PrometheusExporter(controller, statistics, config.getMetricsPort(),
+                        config.getMetricsAirports());
+                metricsExporter.start();
+            } catch (IOException e) {
+                System.err.println("Could not serve metrics on port " + config.getMetricsPort() + ": " + e.getMessage());
+            }
+        }
         eventManager = new EventManager(controller);
 
-        gridArea = new GridArea(10, 10);
+        // Ticks, assignments and servicing completions all just signal; refreshes are coalesced per frame
+        uiUpdates = new UiUpdateCoalescer(config.getUiMaxFps(), App::updateSimulation);
+        controller.setStateChangeListener(uiUpdates::signal);
+        controller.getAircraftManager().getSimulationEngine().addTickListener((tick, deltaSeconds) -> uiUpdates.signal());
+        eventLog = new EventLog(config.getUiLogCapacity());
+        eventLog.recordTransitions(controller.getAircraftManager().getStateStore());
+
+        gridArea = new GridArea(config.getWorldWidth(), config.getWorldHeight());
         gridArea.setBackground(new Color(0, 0x60, 0));
 
         initializeAirports();
+        gridRenderer = new GridRenderer(gridArea);
+        gridRenderer.setFrameRate(uiUpdates.getMaxFps()); // Planes glide between ticks at the UI frame rate
+        gridRenderer.setClock(controller.getAircraftManager().getStateStore()::getClockSeconds);
+        gridRenderer.start();
 
         JButton startBtn = new JButton("Start");
         JButton endBtn = new JButton("End");
@@ -91,13 +135,16 @@ public class App {
                     eventManager.handleEnd(); // Gracefully stop the simulation first
                 }
                 window.dispose(); // Properly dispose of the window
+                gridRenderer.stop();
+                managementBeans.unregister();
+                if (metricsExporter != null) {
+                    metricsExporter.stop(); // Its HTTP thread would otherwise keep the JVM running
+                }
             }
         });
 
         statusText = new JLabel();
-        textArea = new JTextArea();
-        textArea.append("Sidebar\n");
-        textArea.append("Text\n");
+        JComponent eventLogView = createEventLogView();
 
         JToolBar toolbar = new JToolBar();
         toolbar.add(startBtn);
@@ -105,10 +152,7 @@ public class App {
         toolbar.addSeparator();
         toolbar.add(statusText);
 
-        JScrollPane scrollingTextArea = new JScrollPane(textArea);
-        scrollingTextArea.setBorder(BorderFactory.createEtchedBorder());
-
-        JSplitPane splitPane = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, gridArea, scrollingTextArea);
+        JSplitPane splitPane = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, gridArea, eventLogView);
 
         Container contentPane = window.getContentPane();
         contentPane.setLayout(new BorderLayout());
@@ -119,9 +163,46 @@ public class App {
         window.pack();
         splitPane.setDividerLocation(0.75);
         window.setVisible(true);
+    }
+
+    // Creates the event log list, with a filter by airport or plane above it
+    private static JComponent createEventLogView() {
+        eventLogModel = new EventLogListModel(eventLog);
+        eventList = new JList<>(eventLogModel);
+        // A prototype row fixes every row's size, so only the visible rows are ever laid out
+        eventList.setPrototypeCellValue(new SimulationEvent(0L, SimulationEvent.Type.DEPARTED, 99_999, 999, 999, null));
+
+        JComboBox<String> filterKind = new JComboBox<>(new String[] {"All events", "Airport", "Plane"});
+        JSpinner filterId = new JSpinner(new SpinnerNumberModel(0, 0, Integer.MAX_VALUE, 1));
+        filterId.setEnabled(false);
+        Runnable applyFilter = () -> {
+            int id = (Integer) filterId.getValue();
+            int kind = filterKind.getSelectedIndex();
+            filterId.setEnabled(kind != 0);
+            eventLogModel.setFilter(kind == 1 ? id : SimulationEvent.NONE, kind == 2 ? id : SimulationEvent.NONE);
+            scrollEventLogToEnd();
+        };
+        filterKind.addActionListener(event -> applyFilter.run());
+        filterId.addChangeListener(event -> applyFilter.run());
+
+        JPanel filterBar = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        filterBar.add(new JLabel("Show:"));
+        filterBar.add(filterKind);
+        filterBar.add(filterId);
+
+        JScrollPane scrollingList = new JScrollPane(eventList);
+        scrollingList.setBorder(BorderFactory.createEtchedBorder());
+
+        JPanel view = new JPanel(new BorderLayout());
+        view.add(filterBar, BorderLayout.NORTH);
+        view.add(scrollingList, BorderLayout.CENTER);
+        return view;
+    }
 
-        // Start statistics collection
-        statistics.startStatisticsCollection();
+    private static void scrollEventLogToEnd() {
+        if (eventLogModel.getSize() > 0) {
+            eventList.ensureIndexIsVisible(eventLogModel.getSize() - 1);
+        }
     }
 
     // Initialize airport icons and store them in airportIcons list
@@ -132,94 +213,73 @@ public class App {
                 (int) airport.getY(),
                 0.0, // rotation 
                 1.0, // scale
-                App.class.getClassLoader().getResource("airport.png"),
+                SpriteCache.getImage("airport.png"),
                 "Airport " + airport.getId()
             );
             airportIcons.add(airportIcon); // Store the icon in the airportIcons list
         }
-        gridArea.getIcons().addAll(airportIcons); // Add airport icons to the grid area
-    }
-
-    // Initialize planes at airports
-    private static void initializePlanes() {
-        List<Airport> airports = airportManager.getAirports();
-        int planeId = 1;
-
-        // Ensure 10 planes are placed at airports
-        for (int i = 0; i < 10; i++) {
-            Airport airport = airports.get(i % airports.size()); // Cycle through airports
-            Aircraft plane = new Aircraft(planeId++, airport, flightServicingManager, statistics);
-
-            aircraftManager.addAircraft(plane); // Add plane to aircraft manager
-
-            double destinationX = airports.get((i + 1) % airports.size()).getX();
-            double destinationY = airports.get((i + 1) % airports.size()).getY();
-            plane.startFlight(destinationX, destinationY); // Start the flight to a new destination
-        }
+        gridArea.getBackgroundIcons().addAll(airportIcons); // Airports never move, so they are drawn once into the background
+        gridArea.invalidateBackground();
     }
 
     private static void startSimulation() {
+        // The controller keeps its aircraft (and their slots) from one run to the next, so the
+        // renderer's plane icons stay valid and are simply moved by the next snapshot
         controller.setupSimulation();
         controller.startSimulation();
-
-        simulationTimer = new Timer(100, event -> updateSimulation()); // Fixed the fully qualified name issue
-
-        simulationTimer.start();
+        eventLog.append(SimulationEvent.simulation("Simulation started"));
+        uiUpdates.start();
     }
 
-    public static void updatePlanePositions(List<Aircraft> aircraftList) {
-     SwingUtilities.invokeLater(() -> {
-        gridArea.getIcons().clear(); // Clear all icons
-
-        // Re-add airport icons
-        gridArea.getIcons().addAll(airportIcons);
-
-        // Add plane icons only for planes that are still in flight
-        for (Aircraft aircraft : aircraftList) {
-            if (aircraft.isInFlight()) { // Check if the plane is still in flight
-                GridAreaIcon planeIcon = new GridAreaIcon(
-                    (int) aircraft.getX(),
-                    (int) aircraft.getY(),
-                    0.0, // rotation
-                    1.0, // scale
-                    App.class.getClassLoader().getResource("plane.png"),
-                    "Plane " + aircraft.getId()
-                );
-                gridArea.getIcons().add(planeIcon);
-            }
-        }
-
-        gridArea.repaint(); // Repaint the grid to reflect the new positions
-     });
+    // Hands the snapshot to the render thread; callable from any thread
+    public static void updatePlanePositions(FleetSnapshot fleet) {
+        gridRenderer.submit(fleet);
     }
 
     private static void stopSimulation() {
-        if (simulationTimer != null) {
-            simulationTimer.stop();
-            simulationTimer = null;
-        }
         controller.endSimulation();
+        eventLog.append(SimulationEvent.simulation(String.format("Simulation ended after %d trips",
+            statistics.getCompletedTripsCount())));
+        percentilesRefreshed = false; // So the final state shows up-to-date percentiles
+        uiUpdates.stop(); // Shows the final state
+        LOGGER.fine(() -> String.format("UI: %d refreshes at up to %.0f fps for %d signals (%d coalesced)",
+            uiUpdates.getRefreshCount(), uiUpdates.getMaxFps(), uiUpdates.getSignalCount(),
+            uiUpdates.getDroppedSignalCount()));
         System.out.println("Simulation ended. All planes should have been serviced and stopped.");
     }
 
-    public static void updateSimulation() {
-     SwingUtilities.invokeLater(() -> {
-        // Retrieve updated aircraft positions
-        List<Aircraft> updatedAircraftList = controller.getAircraftList();
+    // Re-reads the p99 times if the last reading is old; each reading copies two whole histograms
+    private static void refreshPercentiles() {
+        long now = System.nanoTime();
+        if (percentilesRefreshed && now - percentilesRefreshedNanos < PERCENTILE_REFRESH_NANOS) {
+            return;
+        }
+        waitP99Millis = statistics.getRequestWaitTimes().getP99Nanos() / 1e6;
+        servicingP99Millis = statistics.getServicingTimes().getP99Nanos() / 1e6;
+        percentilesRefreshedNanos = now;
+        percentilesRefreshed = true;
+    }
 
-        updatePlanePositions(updatedAircraftList);
+    // Called by the UI update coalescer, at most once per frame, on the Event Dispatch Thread
+    public static void updateSimulation() {
+        // Retrieve the latest published fleet state
+        updatePlanePositions(controller.getFleetSnapshot());
 
         // Update statusText and textArea with new statistics
-        statusText.setText(String.format("In Flight: %d, Servicing: %d, Completed Trips: %d",
+        refreshPercentiles();
+        statusText.setText(String.format("In Flight: %d, Servicing: %d, Completed Trips: %d, Wait p99: %.0f ms, Servicing p99: %.0f ms",
             statistics.getInFlightCount(),
             statistics.getServicingCount(),
-            statistics.getCompletedTripsCount()));
-
-        textArea.append(String.format("In Flight: %d, Servicing: %d, Completed Trips: %d\n",
-            statistics.getInFlightCount(),
-            statistics.getServicingCount(),
-            statistics.getCompletedTripsCount()));
-     });
+            statistics.getCompletedTripsCount(),
+            waitP99Millis,
+            servicingP99Millis));
+
+        // Show the events logged since the last update, following the end of the log if it was there
+        boolean atEnd = eventList.getLastVisibleIndex() >= eventLogModel.getSize() - 1;
+        eventLogModel.refresh();
+        if (atEnd) {
+            scrollEventLogToEnd();
+        }
     }
 }
 
@@ -0,0 +1,281 @@
+package edu.curtin.saed.assignment1;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed-capacity, lock-free queue backed by a ring of slots, safe for any number of producers
+ * and consumers. Nothing is allocated per element, and the queue never holds more than its
+ * capacity: when it is full, the OverflowPolicy decides what happens to the new element.
+ *
+ * Each slot carries a sequence number saying whether it is ready to be written or read on the
+ * current lap of the ring (Vyukov's bounded MPMC queue), so producers and consumers only contend
+ * on a single compare-and-set of the tail or head position.
+ *
+ * Room can also be reserved ahead of an offer (tryReserve() or reserve()), for an element that is
+ * on its way; reserved room counts as taken until the reservation is released.
+ *
+ * A producer waiting for room (a BLOCK offer, reserve() or awaitRoom()) sleeps on a condition that
+ * poll() and releaseReservation() signal. The lock behind it is only taken when someone is actually
+ * waiting, so the queue stays lock-free otherwise.
+ */
+public class BoundedRequestQueue<E> {
+
+    // What offer() does when the queue is full
+    public enum OverflowPolicy {
+        BLOCK,       // Wait until there is room (the producer is held back)
+        DROP_OLDEST, // Discard the element at the head to make room
+        DROP_NEWEST, // Discard the new element
+        REJECT       // Refuse the new element, and tell the caller
+    }
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<E> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong head = new AtomicLong(); // Next position to read
+    private final AtomicLong tail = new AtomicLong(); // Next position to write
+    private final OverflowPolicy overflowPolicy;
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong blockedCount = new AtomicLong();
+    private final ReentrantLock roomLock = new ReentrantLock();
+    private final Condition roomAvailable = roomLock.newCondition();
+    private final AtomicInteger roomWaiters = new AtomicInteger(); // Producers waiting in awaitRoom()
+    private final AtomicInteger reserved = new AtomicInteger();    // Room held for elements on their way
+
+    // Constructor; the capacity is rounded up to a power of two
+    public BoundedRequestQueue(int capacity, OverflowPolicy overflowPolicy) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Queue capacity must be between 1 and 2^30: " + capacity);
+        }
+        this.capacity = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.slots = new AtomicReferenceArray<>(this.capacity);
+        this.sequences = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            sequences.set(i, i);
+        }
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    /**
+     * Adds an element, applying the overflow policy if the queue is full. Returns true if the
+     * element was queued, and false if it was dropped or rejected (or a BLOCK wait was interrupted).
+     * BLOCK holds the calling thread until a consumer makes room, so only call it from a thread
+     * that belongs to this queue's producer.
+     */
+    public boolean offer(E element) {
+        if (tryOffer(element)) {
+            return true;
+        }
+        switch (overflowPolicy) {
+            case BLOCK:
+                blockedCount.incrementAndGet();
+                try {
+                    do {
+                        awaitRoom();
+                    } while (!tryOffer(element));
+                    return true;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    rejectedCount.incrementAndGet();
+                    return false;
+                }
+            case DROP_OLDEST:
+                while (!tryOffer(element)) {
+                    if (poll() != null) {
+                        droppedCount.incrementAndGet();
+                    }
+                }
+                return true;
+            case DROP_NEWEST:
+                droppedCount.incrementAndGet();
+                return false;
+            case REJECT:
+            default:
+                rejectedCount.incrementAndGet();
+                return false;
+        }
+    }
+
+    // Adds an element if there is room, without applying the overflow policy
+    public boolean tryOffer(E element) {
+        if (element == null) {
+            throw new IllegalArgumentException("Cannot queue null");
+        }
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.set(index, element);
+                    sequences.set(index, position + 1); // Publish the slot to consumers
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false; // Full: the slot is still waiting to be read on the previous lap
+            } else {
+                position = tail.get(); // Another producer took this slot
+            }
+        }
+    }
+
+    // Removes and returns the element at the head, or null if the queue is empty
+    public E poll() {
+        long position = head.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - (position + 1);
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    E element = slots.get(index);
+                    slots.set(index, null);
+                    sequences.set(index, position + capacity); // Free the slot for the next lap
+                    if (roomWaiters.get() > 0) {
+                        signalRoom();
+                    }
+                    return element;
+                }
+                position = head.get();
+            } else if (difference < 0) {
+                return null; // Empty: the slot has not been written on this lap
+            } else {
+                position = head.get(); // Another consumer took this slot
+            }
+        }
+    }
+
+    /**
+     * Waits until the queue has room for at least one more element, counting reserved room as
+     * taken. The room may be taken by another producer before the caller uses it, so callers that
+     * must queue should retry.
+     */
+    public void awaitRoom() throws InterruptedException {
+        if (!isFull()) {
+            return;
+        }
+        roomWaiters.incrementAndGet(); // Before re-checking, so poll() either sees us or we see its room
+        roomLock.lock();
+        try {
+            while (isFull()) {
+                roomAvailable.await();
+            }
+        } finally {
+            roomLock.unlock();
+            roomWaiters.decrementAndGet();
+        }
+    }
+
+    // Reserves room for one element if there is any; returns false if the queue is full
+    public boolean tryReserve() {
+        while (true) {
+            int current = reserved.get();
+            if (size() + current >= capacity) {
+                return false;
+            }
+            if (reserved.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // Waits until there is room for one element, and reserves it
+    public void reserve() throws InterruptedException {
+        if (tryReserve()) {
+            return;
+        }
+        blockedCount.incrementAndGet();
+        do {
+            awaitRoom();
+        } while (!tryReserve());
+    }
+
+    // Gives back room reserved by tryReserve() or reserve(), once its element is queued or abandoned
+    public void releaseReservation() {
+        reserved.decrementAndGet();
+        if (roomWaiters.get() > 0) {
+            signalRoom();
+        }
+    }
+
+    // Returns the room currently reserved
+    public int getReservedCount() {
+        return reserved.get();
+    }
+
+    private boolean isFull() {
+        return size() + reserved.get() >= capacity;
+    }
+
+    // Wakes producers waiting for room
+    private void signalRoom() {
+        roomLock.lock();
+        try {
+            roomAvailable.signalAll();
+        } finally {
+            roomLock.unlock();
+        }
+    }
+
+    // Moves up to maxElements elements, oldest first, into the given collection; returns how many
+    public int drainTo(Collection<? super E> target, int maxElements) {
+        int drained = 0;
+        while (drained < maxElements) {
+            E element = poll();
+            if (element == null) {
+                break;
+            }
+            target.add(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    // Returns true if the queue appears empty
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    // Returns the number of queued elements (a moment-in-time estimate under concurrent use)
+    public int size() {
+        long headPosition = head.get(); // Read first, so the difference can only overestimate
+        long size = tail.get() - headPosition;
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    // Returns how many elements were discarded under DROP_OLDEST or DROP_NEWEST
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    // Returns how many elements were refused under REJECT (or by an interrupted BLOCK)
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    // Returns how many offers or reservations found the queue full and had to wait (or were held back by the caller)
+    public long getBlockedCount() {
+        return blockedCount.get();
+    }
+
+    // Records an offer that found the queue full and was held back outside it, for getBlockedCount()
+    public void recordBlocked() {
+        blockedCount.incrementAndGet();
+    }
+}
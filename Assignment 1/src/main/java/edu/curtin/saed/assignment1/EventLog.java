@@ -0,0 +1,79 @@
+package edu.curtin.saed.assignment1;
+
+import java.util.List;
+
+/**
+ * A fixed-capacity ring buffer of the most recent SimulationEvents. Once full, each new event
+ * overwrites the oldest, so memory use and the cost of an append stay constant however long the
+ * simulation runs.
+ *
+ * Events are appended from any thread (departures, landings and servicing completions are logged
+ * by a transition listener on the thread making the transition), and readers catch up by
+ * sequence number with copySince(), so they never hold the lock while laying anything out.
+ */
+public class EventLog {
+
+    private final SimulationEvent[] events;
+    private long appended; // Sequence number of the next event; guarded by this
+
+    // Constructor
+    public EventLog(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Event log capacity must be at least 1");
+        }
+        this.events = new SimulationEvent[capacity];
+    }
+
+    public int getCapacity() {
+        return events.length;
+    }
+
+    // Adds an event, overwriting the oldest if the log is full
+    public void append(SimulationEvent event) {
+        synchronized (this) {
+            events[(int) (appended % events.length)] = event;
+            appended++;
+        }
+    }
+
+    // Returns the number of events ever appended, which is also the sequence number of the next one
+    public long getAppendedCount() {
+        synchronized (this) {
+            return appended;
+        }
+    }
+
+    /**
+     * Adds to out, oldest first, the events numbered fromSequence onwards that are still held
+     * (older ones have been overwritten and are skipped), and returns the sequence number to
+     * continue from next time.
+     */
+    public long copySince(long fromSequence, List<SimulationEvent> out) {
+        synchronized (this) {
+            long first = Math.max(fromSequence, appended - events.length);
+            for (long sequence = Math.max(0, first); sequence < appended; sequence++) {
+                out.add(events[(int) (sequence % events.length)]);
+            }
+            return appended;
+        }
+    }
+
+    /**
+     * Logs the departures, landings and servicing completions of the aircraft in the given store,
+     * from now on.
+     */
+    public void recordTransitions(AircraftStateStore store) {
+        store.addTransitionListener((slot, from, to, nanosInPreviousState) -> {
+            if (to == AircraftState.IN_FLIGHT) {
+                append(new SimulationEvent(System.currentTimeMillis(), SimulationEvent.Type.DEPARTED, store.getId(slot),
+                        store.getOriginAirportId(slot), store.getDestinationAirportId(slot), null));
+            } else if (to == AircraftState.LANDED) {
+                append(new SimulationEvent(System.currentTimeMillis(), SimulationEvent.Type.LANDED, store.getId(slot),
+                        store.getOriginAirportId(slot), SimulationEvent.NONE, null));
+            } else if (from == AircraftState.SERVICING && to == AircraftState.IDLE) {
+                append(new SimulationEvent(System.currentTimeMillis(), SimulationEvent.Type.SERVICED, store.getId(slot),
+                        store.getOriginAirportId(slot), SimulationEvent.NONE, null));
+            }
+        });
+    }
+}
@@ -0,0 +1,111 @@
+package edu.curtin.saed.assignment1;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.swing.AbstractListModel;
+
+/**
+ * A JList model showing the EventLog's events, optionally only those of one airport and/or one
+ * aircraft. Simulation-wide notes are always shown.
+ *
+ * The model keeps its own ring of (at most the log's capacity) matching events, so its memory is
+ * bounded too, and refresh() only copies the events logged since the last refresh, firing one
+ * removal for the rows that fell off the front and one addition for the new rows. Paired with a
+ * JList given a prototype cell value, only the visible rows are ever laid out or drawn. All
+ * methods are to be called on the Event Dispatch Thread.
+ */
+public class EventLogListModel extends AbstractListModel<SimulationEvent> {
+
+    private final EventLog log;
+    private final SimulationEvent[] rows;
+    private final List<SimulationEvent> batch;
+    private int head;
+    private int size;
+    private long nextSequence;
+    private int airportFilter = SimulationEvent.NONE;
+    private int aircraftFilter = SimulationEvent.NONE;
+
+    // Constructor
+    public EventLogListModel(EventLog log) {
+        this.log = log;
+        this.rows = new SimulationEvent[log.getCapacity()];
+        this.batch = new ArrayList<>(log.getCapacity());
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public SimulationEvent getElementAt(int index) {
+        return rows[(head + index) % rows.length];
+    }
+
+    /**
+     * Shows only the events at (or flying to or from) the given airport, and of the given
+     * aircraft; SimulationEvent.NONE for either means any. The rows are rebuilt from the events
+     * the log still holds.
+     */
+    public void setFilter(int airportId, int aircraftId) {
+        airportFilter = airportId;
+        aircraftFilter = aircraftId;
+        int removed = size;
+        Arrays.fill(rows, null);
+        head = 0;
+        size = 0;
+        if (removed > 0) {
+            fireIntervalRemoved(this, 0, removed - 1);
+        }
+        nextSequence = 0; // Everything still in the log
+        refresh();
+    }
+
+    // Adds the matching events logged since the last refresh, dropping the oldest rows if full
+    public void refresh() {
+        batch.clear();
+        nextSequence = log.copySince(nextSequence, batch);
+
+        int matching = 0;
+        for (SimulationEvent event : batch) {
+            if (matches(event)) {
+                matching++;
+            }
+        }
+        int skipped = Math.max(0, matching - rows.length); // More new rows than fit: keep the newest
+        int removed = Math.max(0, size + matching - skipped - rows.length);
+        if (removed > 0) {
+            for (int i = 0; i < removed; i++) {
+                rows[head] = null;
+                head = (head + 1) % rows.length;
+            }
+            size -= removed;
+            fireIntervalRemoved(this, 0, removed - 1);
+        }
+
+        int firstAdded = size;
+        for (SimulationEvent event : batch) {
+            if (matches(event)) {
+                if (skipped > 0) {
+                    skipped--;
+                } else {
+                    rows[(head + size) % rows.length] = event;
+                    size++;
+                }
+            }
+        }
+        batch.clear(); // Don't keep the events alive once they leave the model
+        if (size > firstAdded) {
+            fireIntervalAdded(this, firstAdded, size - 1);
+        }
+    }
+
+    private boolean matches(SimulationEvent event) {
+        if (event.getType() == SimulationEvent.Type.SIMULATION) {
+            return true;
+        }
+        return (airportFilter == SimulationEvent.NONE || event.concernsAirport(airportFilter))
+                && (aircraftFilter == SimulationEvent.NONE || event.getAircraftId() == aircraftFilter);
+    }
+}
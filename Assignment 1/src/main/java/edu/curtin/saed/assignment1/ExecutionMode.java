@@ -0,0 +1,127 @@
+package edu.curtin.saed.assignment1;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Decides what kind of thread runs the simulation's blocking work: reading request sources,
+ * dispatching requests, and waiting on servicing. Every such thread and executor is created here.
+ *
+ * PLATFORM uses ordinary threads. VIRTUAL uses virtual threads, so thousands of services blocked in
+ * sleep() or waitFor() share a handful of carrier threads. Virtual threads need Java 21 (this
+ * project builds for 17), so they are looked up reflectively; on an older JVM, VIRTUAL logs a
+ * warning and falls back to PLATFORM. The simulation engine and schedulers always use platform
+ * threads, since they do timed, CPU-bound work rather than blocking.
+ */
+public enum ExecutionMode {
+    PLATFORM,
+    VIRTUAL;
+
+    private static final Logger LOGGER = Logger.getLogger(ExecutionMode.class.getName());
+    private static final Method OF_VIRTUAL = findMethod(Thread.class, "ofVirtual");
+    private static final Class<?> BUILDER = classOrNull("java.lang.Thread$Builder");
+    private static final Method BUILDER_NAME = findMethod(BUILDER, "name", String.class);
+    private static final Method BUILDER_NAME_COUNTED = findMethod(BUILDER, "name", String.class, long.class);
+    private static final Method BUILDER_FACTORY = findMethod(BUILDER, "factory");
+    private static final AtomicBoolean FALLBACK_LOGGED = new AtomicBoolean();
+    private static final Method THREAD_PER_TASK = findMethod(Executors.class, "newThreadPerTaskExecutor",
+            ThreadFactory.class);
+
+    // Returns true if this JVM can create virtual threads
+    public static boolean isVirtualSupported() {
+        return OF_VIRTUAL != null && BUILDER_NAME != null && BUILDER_NAME_COUNTED != null
+                && BUILDER_FACTORY != null && THREAD_PER_TASK != null;
+    }
+
+    // Returns the mode actually used: VIRTUAL falls back to PLATFORM where it is unsupported
+    public ExecutionMode effective() {
+        if (this == VIRTUAL && !isVirtualSupported()) {
+            if (FALLBACK_LOGGED.compareAndSet(false, true)) {
+                LOGGER.warning(() -> "Virtual threads need Java 21 or later; using platform threads on Java "
+                        + Runtime.version().feature());
+            }
+            return PLATFORM;
+        }
+        return this;
+    }
+
+    // Returns a factory naming its threads namePrefix-0, namePrefix-1 and so on
+    public ThreadFactory threadFactory(String namePrefix) {
+        if (effectiveQuietly() == VIRTUAL) {
+            Object builder = invoke(BUILDER_NAME_COUNTED, invoke(OF_VIRTUAL, null), namePrefix + "-", 0L);
+            return (ThreadFactory) invoke(BUILDER_FACTORY, builder);
+        }
+        AtomicLong counter = new AtomicLong();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + "-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // Starts a single named thread (always a daemon)
+    public Thread startThread(String name, Runnable task) {
+        Thread thread;
+        if (effectiveQuietly() == VIRTUAL) {
+            Object builder = invoke(BUILDER_NAME, invoke(OF_VIRTUAL, null), name);
+            thread = ((ThreadFactory) invoke(BUILDER_FACTORY, builder)).newThread(task);
+        } else {
+            thread = new Thread(task, name);
+            thread.setDaemon(true);
+        }
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Creates an executor for blocking tasks. With maxThreads &gt; 0 at most that many run at once;
+     * with 0 there is no limit (a cached pool for PLATFORM, one virtual thread per task for VIRTUAL).
+     */
+    public ExecutorService newExecutor(String namePrefix, int maxThreads) {
+        ThreadFactory factory = threadFactory(namePrefix);
+        if (maxThreads > 0) {
+            return Executors.newFixedThreadPool(maxThreads, factory);
+        }
+        if (effectiveQuietly() == VIRTUAL) {
+            return (ExecutorService) invoke(THREAD_PER_TASK, null, factory);
+        }
+        return Executors.newCachedThreadPool(factory);
+    }
+
+    private ExecutionMode effectiveQuietly() {
+        return this == VIRTUAL && isVirtualSupported() ? VIRTUAL : PLATFORM;
+    }
+
+    private static Object invoke(Method method, Object target, Object... args) {
+        try {
+            return method.invoke(target, args);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Could not call " + method.getName(), e);
+        }
+    }
+
+    private static Class<?> classOrNull(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+
+    private static Method findMethod(Class<?> type, String name, Class<?>... parameterTypes) {
+        if (type == null) {
+            return null;
+        }
+        try {
+            return type.getMethod(name, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
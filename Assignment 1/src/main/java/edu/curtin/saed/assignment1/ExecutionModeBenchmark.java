@@ -0,0 +1,230 @@
+package edu.curtin.saed.assignment1;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Headless benchmark comparing the PLATFORM and VIRTUAL execution modes end to end: requests come
+ * in from the configured sources, aircraft fly, land and are serviced, and the loop repeats. For
+ * each mode it reports the peak number of platform threads, the peak resident set size, the
+ * completed trips per second and the mean time from a request's creation to its assignment.
+ *
+ * Each mode runs in a fresh JVM so that the peak figures are its own. Unless servicing.backend is
+ * given, every service blocks a thread for PlaneService's 1-5 seconds (as waiting on a
+ * saed_plane_service process does) without actually starting processes.
+ *
+ * Usage (any SimulationConfig option may also be given):
+ *
+ *   ExecutionModeBenchmark --modes=platform,virtual --airports=500 --aircraft=5000 --duration=30
+ */
+public final class ExecutionModeBenchmark {
+
+    private static final String KEY_MODES = "modes";
+    private static final String KEY_MODE = "mode"; // Set on the child JVM that runs one mode
+    private static final String KEY_WARMUP = "warmup";
+    private static final String KEY_DURATION = "duration";
+
+    // Held in a field, since the logging framework only keeps weak references to loggers
+    private static final Logger PACKAGE_LOGGER = Logger.getLogger(ExecutionModeBenchmark.class.getPackageName());
+
+    private ExecutionModeBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        PACKAGE_LOGGER.setLevel(Level.SEVERE); // Per-flight and queued-request logging would swamp the results
+
+        Properties properties = SimulationConfig.parseArgs(args);
+        if (properties.containsKey(KEY_MODE)) {
+            runMode(properties);
+            return;
+        }
+
+        String modes = (String) properties.remove(KEY_MODES);
+        System.out.printf("%-9s %-9s %13s %13s %10s %13s %15s %14s%n", "mode", "effective", "peak threads", "peak RSS MB",
+                "trips/s", "dispatched/s", "assign mean ms", "assign p99 ms");
+        for (String mode : (modes == null ? "platform,virtual" : modes).split(",")) {
+            List<String> command = new ArrayList<>();
+            command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(ExecutionModeBenchmark.class.getName());
+            for (String name : properties.stringPropertyNames()) {
+                command.add("--" + name + "=" + properties.getProperty(name));
+            }
+            command.add("--" + KEY_MODE + "=" + mode.trim());
+            Process child = new ProcessBuilder(command).inheritIO().start();
+            child.waitFor();
+        }
+    }
+
+    // Runs the simulation in one mode in this JVM and prints one row of results
+    private static void runMode(Properties base) throws InterruptedException {
+        Properties properties = withDefaults(base);
+        ExecutionMode requested = ExecutionMode.valueOf(((String) properties.remove(KEY_MODE)).trim().toUpperCase(Locale.ROOT));
+        String warmup = (String) properties.remove(KEY_WARMUP);
+        String duration = (String) properties.remove(KEY_DURATION);
+        long warmupSeconds = warmup == null ? 20 : Long.parseLong(warmup);
+        long durationSeconds = duration == null ? 30 : Long.parseLong(duration);
+        properties = SimulationConfig.with(properties, SimulationConfig.KEY_EXECUTION_MODE, requested);
+        SimulationConfig config = new SimulationConfig(properties);
+        ExecutionMode mode = config.getExecutionMode().effective();
+
+        AirportManager airportManager = new AirportManager(config.getWorldWidth(), config.getWorldHeight(),
+                config.getAirportCount(), config.getSeed());
+        airportManager.setupAirports();
+        Statistics statistics = new Statistics();
+        AtomicReference<AircraftManager> aircraftManagerRef = new AtomicReference<>();
+
+        ServicingBackend backend = base.containsKey(SimulationConfig.KEY_SERVICING_BACKEND)
+                ? PlaneController.createServicingBackend(config)
+                : new BlockingServicing(mode);
+        FlightServicingManager servicing = new FlightServicingManager((airportId, aircraftId) -> {
+            AircraftManager aircraftManager = aircraftManagerRef.get();
+            Aircraft aircraft = aircraftManager.getAircraftById(aircraftId);
+            Airport airport = airportManager.getAirportById(airportId);
+            if (aircraft != null && airport != null) {
+                aircraftManager.completeServicing(aircraft, airport);
+            }
+        }, backend);
+        AircraftManager aircraftManager = new AircraftManager(airportManager, servicing, statistics,
+                config.getFleetSize(), config.getTickRate(), config.getRequestQueueCapacity(),
+                config.getRequestOverflowPolicy());
+        aircraftManagerRef.set(aircraftManager);
+
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        FlightRequestManager requests = new FlightRequestManager(request -> {
+            aircraftManager.handleFlightRequest(request);
+        }, config.getRequestThreads(), mode, config.getRequestOverflowPolicy());
+        requests.setAdmissionGate(aircraftManager.getDispatcher());
+        for (FlightRequestSource source : PlaneController.createRequestSources(config, airportManager, scheduler)) {
+            requests.addSource(source);
+        }
+
+        aircraftManager.startPlaneMovementUpdates();
+        mode.startThread("FlightServicingManager", servicing);
+        requests.start();
+        TimeUnit.SECONDS.sleep(warmupSeconds);
+
+        long tripsBefore = aircraftManager.getFleetSnapshot().getCompletedTripsCount();
+        long requestsBefore = requestCount(aircraftManager);
+        long start = System.nanoTime();
+        TimeUnit.SECONDS.sleep(durationSeconds);
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        long trips = aircraftManager.getFleetSnapshot().getCompletedTripsCount() - tripsBefore;
+        long dispatched = requestCount(aircraftManager) - requestsBefore;
+        int peakThreads = ManagementFactory.getThreadMXBean().getPeakThreadCount();
+        long peakRssKb = readPeakRssKb();
+
+        LatencyHistogram.Snapshot assignment = statistics.getRequestWaitTimes();
+        System.out.printf("%-9s %-9s %13d %13s %10.1f %13.1f %15.1f %14.1f%n", requested.name().toLowerCase(Locale.ROOT),
+                mode.name().toLowerCase(Locale.ROOT), peakThreads, peakRssKb < 0 ? "n/a" : String.format("%.1f", peakRssKb / 1024.0),
+                trips / elapsed, dispatched / elapsed, assignment.getMeanNanos() / 1e6, assignment.getP99Nanos() / 1e6);
+        System.out.flush();
+
+        requests.stop();
+        servicing.stop();
+        aircraftManager.shutdown();
+        scheduler.shutdownNow();
+        System.exit(0); // NOPMD - do not wait for services still sleeping in the background
+    }
+
+    // Fills in a mid-sized scenario for any scale options not given
+    private static Properties withDefaults(Properties base) {
+        Properties properties = base;
+        String[][] defaults = {
+            {SimulationConfig.KEY_AIRPORTS, "500"},
+            {SimulationConfig.KEY_AIRCRAFT, "5000"},
+            {SimulationConfig.KEY_WORLD_WIDTH, "32"},
+            {SimulationConfig.KEY_WORLD_HEIGHT, "32"},
+            {SimulationConfig.KEY_SEED, "42"},
+            {SimulationConfig.KEY_REQUEST_SOURCE, "in-process"},
+        };
+        for (String[] setting : defaults) {
+            if (!base.containsKey(setting[0])) {
+                properties = SimulationConfig.with(properties, setting[0], setting[1]);
+            }
+        }
+        return properties;
+    }
+
+    // Returns the number of flights dispatched so far (each completed or current flight had one)
+    private static long requestCount(AircraftManager aircraftManager) {
+        FleetSnapshot fleet = aircraftManager.getFleetSnapshot();
+        return fleet.getCompletedTripsCount() + fleet.getInFlightCount();
+    }
+
+    // Returns this process's peak resident set size in kB, or -1 where /proc is not available
+    private static long readPeakRssKb() {
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get("/proc/self/status"), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("VmHWM:")) {
+                    return Long.parseLong(line.substring("VmHWM:".length()).replace("kB", "").trim());
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            return -1;
+        }
+        return -1;
+    }
+
+    /**
+     * Stands in for the saed_plane_service processes: each service holds a thread of the mode
+     * under test, blocked for PlaneService's service time, just as waiting on the process would.
+     */
+    private static final class BlockingServicing implements ServicingBackend {
+        private final ExecutorService executor;
+
+        private BlockingServicing(ExecutionMode mode) {
+            this.executor = mode.newExecutor("PlaneService", 0);
+        }
+
+        @Override
+        public void start() {
+            // Nothing to prepare
+        }
+
+        @Override
+        public void service(int airportId, int aircraftId, ServicingCallback callback) {
+            try {
+                executor.submit(() -> {
+                    try {
+                        TimeUnit.MILLISECONDS.sleep(InProcessServicingBackend.serviceTimeMillis(ThreadLocalRandom.current()));
+                        callback.onServiced(airportId, aircraftId, true);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt(); // Preserve interruption status
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                callback.onServiced(airportId, aircraftId, false);
+            }
+        }
+
+        @Override
+        public void stop() {
+            executor.shutdownNow();
+        }
+
+        @Override
+        public String describe() {
+            return "blocking servicing";
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package edu.curtin.saed.assignment1;
+
+/**
+ * Management interface for one of the simulation's pools of worker threads, registered as
+ * edu.curtin.saed.assignment1:type=Executor,name=... Values a pool cannot report are -1.
+ */
+public interface ExecutorMXBean {
+
+    // Tasks being run right now
+    int getActiveCount();
+
+    // Tasks accepted but not yet started
+    long getQueuedTaskCount();
+
+    // Threads in the pool
+    int getPoolSize();
+
+    long getCompletedTaskCount();
+}
@@ -0,0 +1,120 @@
+package edu.curtin.saed.assignment1;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Replays flight requests recorded in a text file, one per line:
+ *
+ *   &lt;milliseconds since start&gt; &lt;origin airport id&gt; &lt;destination airport id&gt;
+ *
+ * Blank lines and lines starting with '#' are ignored, and requests naming an airport that does
+ * not exist are logged and skipped. Each request is emitted at its recorded offset from start(), as
+ * a task on a shared scheduler, so a replay needs no thread of its own. A request the sink has no
+ * room for is offered again every RETRY_MILLIS until it is taken.
+ */
+public class FileReplayFlightRequestSource implements FlightRequestSource {
+
+    private static final Logger LOGGER = Logger.getLogger(FileReplayFlightRequestSource.class.getName());
+    private static final int RETRY_MILLIS = 100;
+
+    private final Path file;
+    private final int airportCount;
+    private final ScheduledExecutorService scheduler;
+    private final List<ScheduledFuture<?>> pending = new ArrayList<>();
+    private volatile boolean running;
+
+    // Constructor; airport ids in the file must be below airportCount
+    public FileReplayFlightRequestSource(Path file, int airportCount, ScheduledExecutorService scheduler) {
+        this.file = file;
+        this.airportCount = airportCount;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public void start(FlightRequestManager.RequestSink sink) throws IOException {
+        List<long[]> entries = readEntries();
+        synchronized (this) {
+            running = true;
+            for (long[] entry : entries) {
+                int originAirportId = (int) entry[1];
+                int destinationAirportId = (int) entry[2];
+                pending.add(scheduler.schedule( // Created when due, so its wait is timed from then
+                        () -> emit(new FlightRequest(0, 0, 0, originAirportId, destinationAirportId), sink),
+                        entry[0], TimeUnit.MILLISECONDS));
+            }
+        }
+        LOGGER.info(() -> String.format("Replaying %d flight requests from %s", entries.size(), file));
+    }
+
+    // Offers a request, trying again shortly if the sink has no room for it yet
+    private void emit(FlightRequest request, FlightRequestManager.RequestSink sink) {
+        if (running && !sink.offer(request)) {
+            scheduler.schedule(() -> emit(request, sink), RETRY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Reads and validates every entry up front, so a malformed file fails before anything is emitted
+    private List<long[]> readEntries() throws IOException {
+        List<long[]> entries = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = trimmed.split("\\s+");
+                try {
+                    if (fields.length != 3) {
+                        throw new NumberFormatException("expected 3 fields, found " + fields.length);
+                    }
+                    long[] entry = {
+                        Long.parseLong(fields[0]), Integer.parseInt(fields[1]), Integer.parseInt(fields[2])
+                    };
+                    if (isAirport(entry[1]) && isAirport(entry[2])) {
+                        entries.add(entry);
+                    } else {
+                        int badLine = lineNumber;
+                        LOGGER.warning(() -> String.format("%s line %d: no airport %d or %d among %d; skipped",
+                                file, badLine, entry[1], entry[2], airportCount));
+                    }
+                } catch (NumberFormatException e) {
+                    throw new IOException(String.format("%s line %d: %s", file, lineNumber, e.getMessage()), e);
+                }
+            }
+        }
+        return entries;
+    }
+
+    private boolean isAirport(long airportId) {
+        return airportId >= 0 && airportId < airportCount;
+    }
+
+    @Override
+    public void stop() {
+        synchronized (this) {
+            running = false; // Ends any retries
+            for (ScheduledFuture<?> future : pending) {
+                future.cancel(false);
+            }
+            pending.clear();
+        }
+    }
+
+    @Override
+    public String describe() {
+        return "replay of " + file;
+    }
+}
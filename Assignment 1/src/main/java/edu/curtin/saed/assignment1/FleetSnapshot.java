@@ -0,0 +1,204 @@
+package edu.curtin.saed.assignment1;
+
+/**
+ * An immutable copy of the whole fleet's state, taken by the simulation engine at the end of a
+ * tick on which anything changed. Readers such as the GUI and Statistics work from the latest
+ * snapshot instead of the live aircraft, so they never take a lock or contend with the simulation
+ * thread.
+ *
+ * Flights are held as their departure point, destination and simulated departure and arrival
+ * times, so a snapshot stays valid for as long as nothing changes state, however far the flights
+ * move: readers place aircraft at a simulated time of their choosing with getX(slot, time) and
+ * getY(slot, time), paying only for the aircraft they look at.
+ *
+ * The fleet is held in chunks of CHUNK_SIZE slots, each immutable once made. A new snapshot copies
+ * only the chunks in which some aircraft has changed, and shares the rest with the snapshot before
+ * it, so a tick on which a few aircraft change state copies a few chunks rather than the fleet.
+ *
+ * Per-aircraft values are indexed by slot, from 0 to size() - 1.
+ */
+public final class FleetSnapshot {
+
+    /* default */ static final int CHUNK_BITS = 8;
+    /* default */ static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final long version;
+    private final double clockSeconds;
+    private final int size;
+    private final Chunk[] chunks;
+    private final int inFlightCount;
+    private final int servicingCount;
+    private final long completedTripsCount;
+
+    /**
+     * The state of up to CHUNK_SIZE consecutive slots, one array per column. Made by
+     * AircraftStateStore, which hands over arrays it never modifies afterwards.
+     */
+    /* default */ static final class Chunk {
+        private final int[] ids;
+        private final double[] x;
+        private final double[] y;
+        private final double[] targetX;
+        private final double[] targetY;
+        private final double[] departureTimes; // Simulated seconds; only meaningful while IN_FLIGHT
+        private final double[] arrivalTimes;
+        private final byte[] states; // AircraftState ordinals
+        private final int[] originAirportIds;
+        private final int inFlightCount;
+        private final int servicingCount;
+        private final long completedTripsCount;
+
+        // Constructor; takes ownership of the given arrays, which must all be as long as the chunk
+        @SuppressWarnings("PMD.ExcessiveParameterList") // Each array is one column of the chunk
+        /* default */ Chunk(int[] ids, double[] x, double[] y, double[] targetX, double[] targetY,
+                            double[] departureTimes, double[] arrivalTimes, byte[] states, int[] originAirportIds,
+                            long completedTripsCount) {
+            this.ids = ids;
+            this.x = x;
+            this.y = y;
+            this.targetX = targetX;
+            this.targetY = targetY;
+            this.departureTimes = departureTimes;
+            this.arrivalTimes = arrivalTimes;
+            this.states = states;
+            this.originAirportIds = originAirportIds;
+            this.completedTripsCount = completedTripsCount;
+
+            int flying = 0;
+            int servicing = 0;
+            for (byte code : states) {
+                AircraftState state = AircraftState.fromCode(code);
+                if (state == AircraftState.IN_FLIGHT) {
+                    flying++;
+                } else if (state.isOnGroundForServicing()) {
+                    servicing++;
+                }
+            }
+            this.inFlightCount = flying;
+            this.servicingCount = servicing;
+        }
+
+        // Returns the number of slots held
+        /* default */ int length() {
+            return ids.length;
+        }
+    }
+
+    // Constructor; the chunks hold slots 0 to size - 1 in order, and are shared, not copied
+    /* default */ FleetSnapshot(long version, double clockSeconds, int size, Chunk[] chunks) {
+        this.version = version;
+        this.clockSeconds = clockSeconds;
+        this.size = size;
+        this.chunks = chunks;
+
+        int flying = 0;
+        int servicing = 0;
+        long trips = 0;
+        for (Chunk chunk : chunks) {
+            flying += chunk.inFlightCount;
+            servicing += chunk.servicingCount;
+            trips += chunk.completedTripsCount;
+        }
+        this.inFlightCount = flying;
+        this.servicingCount = servicing;
+        this.completedTripsCount = trips;
+    }
+
+    private Chunk chunk(int slot) {
+        return chunks[slot >> CHUNK_BITS];
+    }
+
+    // Returns the number of the tick this snapshot was taken on
+    public long getVersion() {
+        return version;
+    }
+
+    // Returns the simulated time at which the snapshot was taken
+    public double getClockSeconds() {
+        return clockSeconds;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getId(int slot) {
+        return chunk(slot).ids[slot & CHUNK_MASK];
+    }
+
+    // Returns the position at the given simulated time; for an aircraft in flight, worked out from its flight
+    public double getX(int slot, double time) {
+        Chunk chunk = chunk(slot);
+        int index = slot & CHUNK_MASK;
+        double startX = chunk.x[index];
+        return isInFlight(chunk, index) ? startX + (chunk.targetX[index] - startX) * progress(chunk, index, time) : startX;
+    }
+
+    public double getY(int slot, double time) {
+        Chunk chunk = chunk(slot);
+        int index = slot & CHUNK_MASK;
+        double startY = chunk.y[index];
+        return isInFlight(chunk, index) ? startY + (chunk.targetY[index] - startY) * progress(chunk, index, time) : startY;
+    }
+
+    // Returns the departure point of an aircraft in flight, or the position of one on the ground
+    public double getStartX(int slot) {
+        return chunk(slot).x[slot & CHUNK_MASK];
+    }
+
+    public double getStartY(int slot) {
+        return chunk(slot).y[slot & CHUNK_MASK];
+    }
+
+    private static double progress(Chunk chunk, int index, double time) {
+        return AircraftStateStore.flightProgress(chunk.departureTimes[index], chunk.arrivalTimes[index], time);
+    }
+
+    private static boolean isInFlight(Chunk chunk, int index) {
+        return chunk.states[index] == AircraftState.IN_FLIGHT.ordinal();
+    }
+
+    // Returns whether the aircraft in the given slot is still short of its destination at the given time
+    public boolean isMoving(int slot, double time) {
+        Chunk chunk = chunk(slot);
+        int index = slot & CHUNK_MASK;
+        return isInFlight(chunk, index) && time < chunk.arrivalTimes[index];
+    }
+
+    public double getTargetX(int slot) {
+        return chunk(slot).targetX[slot & CHUNK_MASK];
+    }
+
+    public double getTargetY(int slot) {
+        return chunk(slot).targetY[slot & CHUNK_MASK];
+    }
+
+    public AircraftState getState(int slot) {
+        return AircraftState.fromCode(chunk(slot).states[slot & CHUNK_MASK]);
+    }
+
+    public boolean isInFlight(int slot) {
+        return getState(slot) == AircraftState.IN_FLIGHT;
+    }
+
+    public boolean isBeingServiced(int slot) {
+        return getState(slot).isOnGroundForServicing();
+    }
+
+    public int getOriginAirportId(int slot) {
+        return chunk(slot).originAirportIds[slot & CHUNK_MASK];
+    }
+
+    public int getInFlightCount() {
+        return inFlightCount;
+    }
+
+    public int getServicingCount() {
+        return servicingCount;
+    }
+
+    public long getCompletedTripsCount() {
+        return completedTripsCount;
+    }
+}
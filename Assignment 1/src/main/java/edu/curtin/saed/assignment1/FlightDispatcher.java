@@ -0,0 +1,269 @@
+package edu.curtin.saed.assignment1;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Matches flight requests with idle aircraft as soon as both are present at an airport. Nothing
+ * polls: matching runs on the thread that caused it, on the two events that can make a match
+ * possible, namely a request arriving (submit) and an aircraft becoming available (releaseAircraft,
+ * which AircraftManager calls on every transition to AircraftState.IDLE). An aircraft is only
+ * taken from a pool by claiming it, so a stale pool entry can never be dispatched twice.
+ *
+ * Each airport has a bounded queue of waiting requests and a pool of idle aircraft. Both events
+ * add to their side first and then try to match, so whichever comes second always sees the other;
+ * a burst is matched in batches, taking a group of aircraft and then draining as many requests.
+ * The time from a request's creation to its assignment is recorded in a LatencyHistogram.
+ *
+ * submit() runs on threads shared by every airport, so under the BLOCK policy it must not wait
+ * for room. Sources are held back before that can happen instead: as the intake's AdmissionGate,
+ * the dispatcher reserves room in an airport's queue for each request before it is read in, and
+ * the intake releases it once the request has been submitted, so a submitted request always fits.
+ */
+public class FlightDispatcher implements FlightRequestManager.AdmissionGate {
+
+    private static final Logger LOGGER = Logger.getLogger(FlightDispatcher.class.getName());
+    private static final int BATCH_SIZE = 64;
+
+    private final AirportManager airportManager;
+    private final BoundedRequestQueue.OverflowPolicy overflowPolicy;
+    private final BoundedRequestQueue<FlightRequest>[] requestQueues; // Indexed by airport id
+    private final Queue<Aircraft>[] idleAircraft;                      // Indexed by airport id
+    private final LongAdder assignedCount = new LongAdder();
+    private final LongAdder invalidCount = new LongAdder(); // Requests naming an unknown airport
+    private final LatencyHistogram assignmentLatency;
+    private final AirportMetrics airportMetrics;
+
+    // Constructor; creates an empty request queue and idle pool for every airport
+    public FlightDispatcher(AirportManager airportManager, int queueCapacity,
+                            BoundedRequestQueue.OverflowPolicy overflowPolicy) {
+        this(airportManager, queueCapacity, overflowPolicy, new LatencyHistogram(), null);
+    }
+
+    /**
+     * Constructor that records request-to-dispatch times into the given histogram, and requests
+     * received and dispatched into the given per-airport metrics (if null, the dispatcher keeps its
+     * own, reading queue depths from itself).
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"}) // Generic array creation
+    public FlightDispatcher(AirportManager airportManager, int queueCapacity,
+                            BoundedRequestQueue.OverflowPolicy overflowPolicy, LatencyHistogram assignmentLatency,
+                            AirportMetrics airportMetrics) {
+        this.airportManager = airportManager;
+        this.overflowPolicy = overflowPolicy;
+        this.assignmentLatency = assignmentLatency;
+        this.airportMetrics = airportMetrics != null ? airportMetrics : new AirportMetrics(airportManager, this::getQueueDepth);
+        int maxAirportId = 0;
+        for (Airport airport : airportManager.getAirports()) {
+            maxAirportId = Math.max(maxAirportId, airport.getId());
+        }
+        this.requestQueues = new BoundedRequestQueue[maxAirportId + 1];
+        this.idleAircraft = new Queue[maxAirportId + 1];
+        for (Airport airport : airportManager.getAirports()) {
+            requestQueues[airport.getId()] = new BoundedRequestQueue<>(queueCapacity, overflowPolicy);
+            idleAircraft[airport.getId()] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    /**
+     * Dispatches a request: assigns an idle aircraft at its origin at once, or queues it until one
+     * becomes available (subject to the queue's overflow policy). Under BLOCK, only a request
+     * submitted without room reserved for it (see tryReserve) can find the queue full and wait.
+     * Returns true if any flight was assigned as a result.
+     */
+    public boolean submit(FlightRequest request) {
+        int airportId = request.getOriginAirportId();
+        if (!isKnownAirport(airportId) || !isKnownAirport(request.getDestinationAirportId())) {
+            invalidCount.increment();
+            LOGGER.log(Level.WARNING, () -> String.format("Rejecting request from Airport %d to Airport %d: unknown airport",
+                    airportId, request.getDestinationAirportId()));
+            return false;
+        }
+        airportMetrics.onRequestReceived(airportId);
+        Aircraft aircraft = acquireIdleAircraft(airportId);
+        if (aircraft != null) {
+            assign(aircraft, request);
+            return true;
+        }
+
+        if (requestQueues[airportId].offer(request)) {
+            LOGGER.log(Level.FINE, () -> String.format("No available aircraft at Airport %d. The request is added to the queue.",
+                    airportId));
+        } else {
+            LOGGER.log(Level.WARNING, () -> String.format("Request queue full at Airport %d (%s); request to Airport %d not queued.",
+                    airportId, overflowPolicy, request.getDestinationAirportId()));
+        }
+        return match(airportId) > 0; // An aircraft may have become available meanwhile
+    }
+
+    // Reserves room for a request at the given airport; an unknown airport needs none, as submit() rejects it
+    @Override
+    public boolean tryReserve(int airportId) {
+        if (!isKnownAirport(airportId) || requestQueues[airportId].tryReserve()) {
+            return true;
+        }
+        requestQueues[airportId].recordBlocked(); // The source is held back
+        return false;
+    }
+
+    // Waits for room for a request at the given airport, and reserves it
+    @Override
+    public void reserve(int airportId) throws InterruptedException {
+        if (isKnownAirport(airportId)) {
+            requestQueues[airportId].reserve();
+        }
+    }
+
+    // Releases room reserved at the given airport, once its request has been submitted or abandoned
+    @Override
+    public void release(int airportId) {
+        if (isKnownAirport(airportId)) {
+            requestQueues[airportId].releaseReservation();
+        }
+    }
+
+    // Returns true if the id is that of one of the dispatcher's airports
+    private boolean isKnownAirport(int airportId) {
+        return airportId >= 0 && airportId < requestQueues.length && requestQueues[airportId] != null;
+    }
+
+    // Makes an aircraft available at the airport it is parked at, and matches it with any waiting request
+    public void releaseAircraft(Aircraft aircraft) {
+        int airportId = aircraft.getOriginAirport().getId();
+        idleAircraft[airportId].offer(aircraft);
+        match(airportId);
+    }
+
+    // Claims (IDLE -> DISPATCHED) and returns an idle aircraft parked at the given airport, or null if there is none
+    public Aircraft acquireIdleAircraft(int airportId) {
+        if (airportId < 0 || airportId >= idleAircraft.length || idleAircraft[airportId] == null) {
+            return null;
+        }
+        Queue<Aircraft> pool = idleAircraft[airportId];
+        Aircraft aircraft = pool.poll();
+        while (aircraft != null && !aircraft.claim()) {
+            aircraft = pool.poll(); // Skip entries that are no longer idle
+        }
+        return aircraft;
+    }
+
+    // Pairs waiting requests with idle aircraft at one airport, in batches; returns the number assigned
+    private int match(int airportId) {
+        BoundedRequestQueue<FlightRequest> requestQueue = requestQueues[airportId];
+        Queue<Aircraft> pool = idleAircraft[airportId];
+        int matched = 0;
+        List<Aircraft> aircraftBatch = null;
+        List<FlightRequest> requestBatch = null;
+        while (!requestQueue.isEmpty() && !pool.isEmpty()) {
+            if (aircraftBatch == null) {
+                aircraftBatch = new ArrayList<>();
+                requestBatch = new ArrayList<>();
+            }
+            int wanted = Math.min(BATCH_SIZE, requestQueue.size());
+            for (int i = 0; i < wanted; i++) {
+                Aircraft aircraft = acquireIdleAircraft(airportId);
+                if (aircraft == null) {
+                    break;
+                }
+                aircraftBatch.add(aircraft);
+            }
+            requestQueue.drainTo(requestBatch, aircraftBatch.size());
+            int pairs = requestBatch.size();
+            for (int i = 0; i < pairs; i++) {
+                assign(aircraftBatch.get(i), requestBatch.get(i));
+            }
+            for (int i = pairs; i < aircraftBatch.size(); i++) {
+                aircraftBatch.get(i).unclaim(); // Another thread took the requests; back to the pool via IDLE
+            }
+            matched += pairs;
+            aircraftBatch.clear();
+            requestBatch.clear();
+        }
+        return matched;
+    }
+
+    // Starts the given aircraft on the requested flight
+    private void assign(Aircraft aircraft, FlightRequest request) {
+        Airport destinationAirport = airportManager.getAirportById(request.getDestinationAirportId()); // Retrieve the destination airport based on the destination airport ID from the request
+        if (destinationAirport == null) {
+            LOGGER.log(Level.WARNING, () -> String.format("Ignoring request from Airport %d to unknown Airport %d",
+                    request.getOriginAirportId(), request.getDestinationAirportId()));
+            aircraft.unclaim();
+            return;
+        }
+        aircraft.startFlight(destinationAirport); // Start the flight for the aircraft, moving it to the destination airport
+        assignedCount.increment();
+        assignmentLatency.recordSince(request.getCreatedNanos());
+        airportMetrics.onRequestDispatched(request.getOriginAirportId());
+
+        // Log
+        LOGGER.log(Level.INFO, () -> String.format("Assigned Aircraft %d to flight from Airport %d to Airport %d",
+                aircraft.getId(), request.getOriginAirportId(), request.getDestinationAirportId()));
+    }
+
+    // Returns the queue of requests waiting for an aircraft at the given airport, or null if unknown
+    public BoundedRequestQueue<FlightRequest> getRequestQueue(int airportId) {
+        if (airportId < 0 || airportId >= requestQueues.length) {
+            return null;
+        }
+        return requestQueues[airportId];
+    }
+
+    // Returns the number of requests waiting for an aircraft at the given airport
+    public long getQueueDepth(int airportId) {
+        BoundedRequestQueue<FlightRequest> requestQueue = getRequestQueue(airportId);
+        return requestQueue == null ? 0 : requestQueue.size();
+    }
+
+    public AirportMetrics getAirportMetrics() {
+        return airportMetrics;
+    }
+
+    // Returns the number of requests waiting for an aircraft, across all airports
+    public long getQueuedRequestCount() {
+        long total = 0;
+        for (int airportId = 0; airportId < requestQueues.length; airportId++) {
+            total += getQueueDepth(airportId);
+        }
+        return total;
+    }
+
+    // Returns the number of waiting requests discarded by the overflow policy, across all airports
+    public long getDroppedRequestCount() {
+        long total = 0;
+        for (BoundedRequestQueue<FlightRequest> requestQueue : requestQueues) {
+            total += requestQueue == null ? 0 : requestQueue.getDroppedCount() + requestQueue.getRejectedCount();
+        }
+        return total;
+    }
+
+    // Returns the number of requests rejected for naming an unknown origin or destination airport
+    public long getInvalidRequestCount() {
+        return invalidCount.sum();
+    }
+
+    // Returns the number of flights assigned so far
+    public long getAssignedCount() {
+        return assignedCount.sum();
+    }
+
+    // Returns the distribution of times from a request's creation to its assignment to an aircraft
+    public LatencyHistogram.Snapshot getAssignmentLatency() {
+        return assignmentLatency.snapshot();
+    }
+
+    // Returns the mean time from a request's creation to its assignment to an aircraft
+    public long getAverageAssignmentLatencyNanos() {
+        return assignmentLatency.snapshot().getMeanNanos();
+    }
+
+    // Returns the longest time any request has waited for an aircraft
+    public long getMaxAssignmentLatencyNanos() {
+        return assignmentLatency.snapshot().getMaxNanos();
+    }
+}
@@ -7,6 +7,7 @@ public class FlightRequest {
     private double destinationY;
     private int originAirportId;         
     private int destinationAirportId;
+    private final long createdNanos = System.nanoTime(); // When the request entered the simulation
 
     // Constructor
     public FlightRequest(int aircraftId, double destinationX, double destinationY, int originAirportId, int destinationAirportId) {
@@ -36,5 +37,10 @@ public class FlightRequest {
     public double getDestinationY() {
         return destinationY;
     }
+
+    // Returns the System.nanoTime() at which this request was created
+    public long getCreatedNanos() {
+        return createdNanos;
+    }
 }
 
@@ -1,155 +1,328 @@
 package edu.curtin.saed.assignment1;
 
-import java.io.BufferedReader;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.io.InputStreamReader;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
-
 
-
-public class FlightRequestManager implements Runnable {
+/**
+ * Takes in flight requests from every source and feeds them through one dispatch queue.
+ *
+ * Every source passes each request to the RequestSink it is started with as soon as it has one:
+ * the in-process and replay sources from a shared scheduler, and the saed_flight_requests
+ * processes from a ProcessReaderPool or their own reader threads. A fixed number of dispatch threads
+ * block in take() until a request is queued and pass it to the handler, so a request is dispatched
+ * the moment it is read. The queue is bounded; when a burst fills it, the overflow policy either
+ * holds the sources back or sheds requests (and counts them).
+ *
+ * Under BLOCK, room is also reserved for each request in its airport before it is queued (see
+ * setAdmissionGate), and released once it has been handled, so one busy airport never stalls the
+ * dispatch threads that every airport shares. A source is held back by offer() returning false,
+ * or by waiting in put().
+ */
+public class FlightRequestManager {
 
     private static final Logger LOGGER = Logger.getLogger(FlightRequestManager.class.getName());
-    private static final int THREAD_POOL_SIZE = 10;
+    private static final int DISPATCH_QUEUE_CAPACITY = 10_000;
+    private static final FlightRequest STOP = new FlightRequest(0, 0, 0, -1, -1); // Ends a dispatch thread
     private final FlightRequestHandler requestHandler;
-    private int originAirportId;
-    private volatile boolean running = true;
-    private Process process;
-    private final ExecutorService executorService;
+    private final int dispatchThreadCount;
+    private final ExecutionMode executionMode;
+    private final List<FlightRequestSource> sources = new CopyOnWriteArrayList<>();
+    private final BlockingQueue<FlightRequest> dispatchQueue = new LinkedBlockingQueue<>(DISPATCH_QUEUE_CAPACITY);
+    private final BoundedRequestQueue.OverflowPolicy overflowPolicy;
+    private final AtomicLong droppedRequests = new AtomicLong();
+    private final AtomicInteger activeDispatchers = new AtomicInteger();
+    private final LongAdder handledRequests = new LongAdder();
+    private final List<Thread> threads = new ArrayList<>();
+    private final RequestSink intake = new Intake();
+    private volatile AdmissionGate admissionGate;
+    private volatile AdmissionGate activeGate; // The gate in use since start(); BLOCK only
+    private volatile boolean running;
 
     // Interface for handling flight requests
     public interface FlightRequestHandler {
         void handleFlightRequest(FlightRequest request);
     }
 
+    // Interface for reserving room for a request at its origin airport before it is queued
+    public interface AdmissionGate {
+        boolean tryReserve(int airportId);                          // Returns false if there is no room now
+        void reserve(int airportId) throws InterruptedException;    // Waits until there is room
+        void release(int airportId);                                // Once the reserved request is handled or discarded
+    }
+
+    // Interface through which sources pass on their requests
+    public interface RequestSink {
+        // Queues a request if it has room, returning false if the source should hold it and offer it again later
+        boolean offer(FlightRequest request);
+
+        // Queues a request, waiting for room under BLOCK; only for a source with a thread of its own
+        void put(FlightRequest request) throws InterruptedException;
+    }
+
     // Constructor
-    public FlightRequestManager(FlightRequestHandler requestHandler, int originAirportId) {
-        this.requestHandler = requestHandler;
-        this.originAirportId = originAirportId;
-        this.executorService = Executors.newFixedThreadPool(THREAD_POOL_SIZE); // Initialize the executor service
+    public FlightRequestManager(FlightRequestHandler requestHandler) {
+        this(requestHandler, 1);
     }
 
-    @Override
-    public void run() {
-        try {
-            startFlightRequestProcess(); // Start the process for retrieving flight requests
-        } catch (IOException e) {
-            LOGGER.log(Level.SEVERE, () -> String.format("Error retrieving flight requests for Airport %d: %s", originAirportId, e.getMessage()));
-        } finally {
-            stopProcess(); // Process is stopped
-            shutdownExecutorService(); // Shutdown the executor service
-            LOGGER.info(() -> String.format("FlightRequestManager for Airport %d has stopped.", originAirportId));
+    // Constructor with an explicit number of dispatch threads
+    public FlightRequestManager(FlightRequestHandler requestHandler, int dispatchThreadCount) {
+        this(requestHandler, dispatchThreadCount, ExecutionMode.PLATFORM);
+    }
+
+    // Constructor with an explicit number and kind of dispatch threads
+    public FlightRequestManager(FlightRequestHandler requestHandler, int dispatchThreadCount,
+                                ExecutionMode executionMode) {
+        this(requestHandler, dispatchThreadCount, executionMode, BoundedRequestQueue.OverflowPolicy.DROP_OLDEST);
+    }
+
+    // Constructor that also says what to do when the dispatch queue is full
+    public FlightRequestManager(FlightRequestHandler requestHandler, int dispatchThreadCount,
+                                ExecutionMode executionMode, BoundedRequestQueue.OverflowPolicy overflowPolicy) {
+        if (dispatchThreadCount < 1) {
+            throw new IllegalArgumentException("At least 1 dispatch thread is needed: " + dispatchThreadCount);
         }
+        this.requestHandler = requestHandler;
+        this.dispatchThreadCount = dispatchThreadCount;
+        this.executionMode = executionMode.effective();
+        this.overflowPolicy = overflowPolicy;
     }
 
-    // Starts the process to retrieve flight requests and handle them
-    private void startFlightRequestProcess() throws IOException {
-        String command = getCommand("saed_flight_requests"); // Get the command to execute based on the OS
-        process = new ProcessBuilder(command, "10", String.valueOf(originAirportId)).start(); // Start the process
+    // Sets where room is reserved for each request under BLOCK; takes effect from the next start()
+    public void setAdmissionGate(AdmissionGate admissionGate) {
+        this.admissionGate = admissionGate;
+    }
 
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-            String line;
-            while (running && (line = reader.readLine()) != null) {
-                if (line.trim().isEmpty()) {
-                    continue; // Skip empty lines
-                }
-                try {
-                    int destinationAirportId = Integer.parseInt(line); // Parse the destination airport ID from the line
-                    FlightRequest request = new FlightRequest(0, 0, 0, originAirportId, destinationAirportId);
-                    executorService.submit(() -> {
-                        requestHandler.handleFlightRequest(request); // Handle the flight request
-                        LOGGER.info(() -> String.format("Flight request handled from Airport %d to Airport %d", originAirportId, destinationAirportId));
-                    });
-                } catch (NumberFormatException e) {
-                    continue; // Skip lines that do not contain valid integers
-                }
+    // Adds a source to read requests from; sources added after start() are started immediately
+    public void addSource(FlightRequestSource source) {
+        sources.add(source);
+        if (running) {
+            startSource(source);
+        }
+    }
+
+    // Starts every source and the dispatch threads
+    public void start() {
+        synchronized (this) {
+            if (running) {
+                return;
             }
-        } catch (IOException e) {
-            if (!running) {
-                LOGGER.info(() -> "Process stopped gracefully.");
-                return; // If stopped gracefully, just return
+            activeGate = overflowPolicy == BoundedRequestQueue.OverflowPolicy.BLOCK ? admissionGate : null;
+            running = true;
+            for (FlightRequestSource source : sources) {
+                startSource(source);
+            }
+            for (int i = 0; i < dispatchThreadCount; i++) {
+                threads.add(executionMode.startThread("FlightRequestDispatch-" + i, this::dispatchRequests));
             }
-            throw e; // Otherwise, rethrow the exception
-        } finally {
-            stopProcess(); // Process is stopped even if exceptions occur
         }
+        LOGGER.info(() -> String.format("Reading %d flight request sources with %d dispatch threads.",
+                sources.size(), dispatchThreadCount));
     }
 
-    // Restarts the flight request process with a new origin airport ID
-    public void restartFlightRequests(int updatedOriginAirportId) {
-        this.originAirportId = updatedOriginAirportId;
-        stopProcess(); // Stop the current process
+    private void startSource(FlightRequestSource source) {
         try {
-            startFlightRequestProcess(); // Restart the flight request process with the new origin airport ID
+            source.start(intake);
+            LOGGER.fine(() -> "Started " + source.describe());
         } catch (IOException e) {
-            LOGGER.log(Level.SEVERE, () -> String.format("Error restarting flight requests for Airport %d: %s", originAirportId, e.getMessage()));
+            LOGGER.log(Level.SEVERE, () -> String.format("Error starting %s: %s", source.describe(), e.getMessage()));
+            sources.remove(source);
         }
     }
 
-    // Stops the flight request manager and its associated processes
-    public void stop() {
-        running = false;
-        stopProcess();
-        shutdownExecutorService();
-    }
+    // The sink every source is started with
+    private final class Intake implements RequestSink {
+
+        @Override
+        public boolean offer(FlightRequest request) {
+            if (!running) {
+                return true; // Stopping: taken, and discarded with the rest
+            }
+            if (overflowPolicy != BoundedRequestQueue.OverflowPolicy.BLOCK) {
+                shed(request);
+                return true;
+            }
+            AdmissionGate gate = activeGate;
+            int airportId = request.getOriginAirportId();
+            if (gate != null && !gate.tryReserve(airportId)) {
+                return false;
+            }
+            if (dispatchQueue.offer(request)) {
+                discardIfStopped(request);
+                return true;
+            }
+            if (gate != null) {
+                gate.release(airportId);
+            }
+            return false;
+        }
 
-    private void stopProcess() {
-        if (process != null) {
+        @Override
+        public void put(FlightRequest request) throws InterruptedException {
+            if (!running) {
+                return;
+            }
+            if (overflowPolicy != BoundedRequestQueue.OverflowPolicy.BLOCK) {
+                shed(request);
+                return;
+            }
+            AdmissionGate gate = activeGate;
+            int airportId = request.getOriginAirportId();
+            if (gate != null) {
+                gate.reserve(airportId);
+            }
             try {
-                process.getOutputStream().close(); // Close output stream
-                process.getInputStream().close();  // Close input stream
-            } catch (IOException e) {
-                LOGGER.warning(() -> "Error closing process streams: " + e.getMessage());
+                dispatchQueue.put(request);
+            } catch (InterruptedException e) {
+                if (gate != null) {
+                    gate.release(airportId);
+                }
+                throw e;
             }
-            if (process.isAlive()) {
-                process.destroy(); // Destroy the process if it's still alive
-                try {
-                    if (!process.waitFor(30, TimeUnit.SECONDS)) {
-                        process.destroyForcibly(); // Forcefully destroy if not terminated in time
+            discardIfStopped(request);
+        }
+
+        // Takes back a request queued while stop() was emptying the queue, so its room is not kept
+        private void discardIfStopped(FlightRequest request) {
+            if (!running && dispatchQueue.remove(request)) {
+                releaseRoom(request);
+            }
+        }
+    }
+
+    // Adds a request to the dispatch queue, shedding a request as the overflow policy says if it is full
+    private void shed(FlightRequest request) {
+        if (dispatchQueue.offer(request)) {
+            return;
+        }
+        switch (overflowPolicy) {
+            case DROP_OLDEST:
+                while (!dispatchQueue.offer(request)) {
+                    if (dispatchQueue.poll() != null) {
+                        droppedRequests.incrementAndGet();
                     }
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt(); // Restore interrupted status
-                    process.destroyForcibly(); // Forcefully destroy on interruption
                 }
-            }
+                break;
+            case DROP_NEWEST:
+            case REJECT:
+            case BLOCK: // Not reached: the sink holds sources back instead
+            default:
+                droppedRequests.incrementAndGet();
+                LOGGER.fine(() -> "Dispatch queue full; dropped request from Airport " + request.getOriginAirportId());
+                break;
         }
     }
 
-    // Shutdowns the executor service and ensures it's terminated
-    private void shutdownExecutorService() {
-        if (!executorService.isShutdown()) {
-            executorService.shutdown(); // Initiates an orderly shutdown
+    // Dispatch loop: waits for each queued request and hands it to the handler, until it takes STOP
+    private void dispatchRequests() {
+        while (true) {
             try {
-                if (!executorService.awaitTermination(60, TimeUnit.SECONDS)) {
-                    executorService.shutdownNow(); // Force shutdown if not terminated in time
+                FlightRequest request = dispatchQueue.take();
+                if (request == STOP) {
+                    return;
                 }
+                activeDispatchers.incrementAndGet();
+                try {
+                    requestHandler.handleFlightRequest(request); // Handle the flight request
+                } finally {
+                    activeDispatchers.decrementAndGet();
+                    handledRequests.increment();
+                    releaseRoom(request);
+                }
+                LOGGER.info(() -> String.format("Flight request handled from Airport %d to Airport %d",
+                        request.getOriginAirportId(), request.getDestinationAirportId()));
             } catch (InterruptedException e) {
-                executorService.shutdownNow(); // Force shutdown on interruption
-                Thread.currentThread().interrupt(); // Restore interrupted status
+                Thread.currentThread().interrupt(); // Preserve interruption status
+                return;
+            } catch (RuntimeException e) { // NOPMD - one bad request must not stop dispatching
+                LOGGER.log(Level.SEVERE, e, () -> "Error handling flight request");
             }
         }
     }
 
-    // Returns the ID of the origin airport
-    public int getOriginAirportId() {
-        return originAirportId;
+    // Stops every source and then the dispatch threads, dropping the requests not yet dispatched
+    public void stop() {
+        List<Thread> toJoin;
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            toJoin = new ArrayList<>(threads);
+            threads.clear();
+        }
+        for (FlightRequestSource source : sources) {
+            source.stop();
+        }
+        discardQueued(); // Skip what is left, and make room for a source still blocked in put()
+        try {
+            for (int i = 0; i < toJoin.size(); i++) {
+                dispatchQueue.put(STOP); // Taken after anything queued since, as the threads keep dispatching
+            }
+            for (Thread thread : toJoin) {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Restore interrupted status
+        }
+        discardQueued();
+        LOGGER.info(() -> "Flight request intake stopped.");
     }
 
-    // Determines the command to execute based on the operating system
-    private String getCommand(String baseName) {
-        String os = System.getProperty("os.name").toLowerCase();
-        if (os.contains("win")) {
-            return baseName + ".bat"; // For Windows, use .bat file
-        } else {
-            return baseName; // For other OS, use the base name directly
+    // Empties the dispatch queue, releasing the room reserved for each request discarded
+    private void discardQueued() {
+        List<FlightRequest> discarded = new ArrayList<>();
+        dispatchQueue.drainTo(discarded);
+        for (FlightRequest request : discarded) {
+            if (request != STOP) {
+                releaseRoom(request);
+            }
         }
     }
-}
 
+    // Releases the room reserved for a request at its airport, once it has been handled or discarded
+    private void releaseRoom(FlightRequest request) {
+        AdmissionGate gate = activeGate;
+        if (gate != null) {
+            gate.release(request.getOriginAirportId());
+        }
+    }
 
+    public int getDispatchThreadCount() {
+        return dispatchThreadCount;
+    }
+
+    // Returns the number of dispatch threads currently handling a request
+    public int getActiveDispatcherCount() {
+        return activeDispatchers.get();
+    }
+
+    // Returns the number of requests handed to the handler so far
+    public long getHandledRequestCount() {
+        return handledRequests.sum();
+    }
+
+    // Returns the sources currently being read
+    public List<FlightRequestSource> getSources() {
+        return List.copyOf(sources);
+    }
+
+    // Returns the number of requests waiting to be dispatched
+    public int getQueuedRequestCount() {
+        return dispatchQueue.size();
+    }
+
+    // Returns the number of requests discarded because the dispatch queue was full
+    public long getDroppedRequestCount() {
+        return droppedRequests.get();
+    }
+}
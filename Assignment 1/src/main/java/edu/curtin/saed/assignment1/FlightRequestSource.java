@@ -0,0 +1,25 @@
+package edu.curtin.saed.assignment1;
+
+import java.io.IOException;
+
+/**
+ * Somewhere flight requests come from. A source is started with a sink, and then passes each
+ * request to that sink (from whatever thread it uses) until it is stopped or runs out. A source on a
+ * shared thread offers each request, and keeps one the sink has no room for to offer again later;
+ * only a source with a thread of its own may wait in put().
+ *
+ * Implementations: ProcessFlightRequestSource (one external saed_flight_requests process),
+ * InProcessFlightRequestSource (an equivalent generator running inside this JVM) and
+ * FileReplayFlightRequestSource (requests recorded in a file).
+ */
+public interface FlightRequestSource {
+
+    // Starts producing requests; must not block for longer than it takes to set the source up
+    void start(FlightRequestManager.RequestSink sink) throws IOException;
+
+    // Stops producing requests and releases any resources; safe to call more than once
+    void stop();
+
+    // Returns a short description for log messages
+    String describe();
+}
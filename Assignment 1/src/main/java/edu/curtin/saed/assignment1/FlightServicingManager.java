@@ -1,32 +1,32 @@
 package edu.curtin.saed.assignment1;
 
-import java.io.BufferedReader;
-import java.util.logging.Level;
-import java.util.logging.Logger;
-import javax.swing.SwingUtilities;
+import java.io.IOException;
 import java.util.List;
 import java.util.ArrayList;
-import java.io.IOException;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.RejectedExecutionException;
-import java.io.InputStreamReader;
-import java.util.concurrent.*;
-import java.util.logging.*;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 
 
 public class FlightServicingManager implements Runnable {
 
     private static final Logger LOGGER = Logger.getLogger(FlightServicingManager.class.getName());
+    private static final int MAX_ATTEMPTS = 3; // Failed services retried on the backend before falling back
     private final FlightServicingHandler servicingHandler; 
-    private final ExecutorService executorService; 
+    private final ServicingBackend backend;
     private final List<Aircraft> aircraftForServicing = new ArrayList<>();
-    private volatile boolean running = true; 
+    private final Object lifecycleLock = new Object(); // Keeps start() and stop() from interleaving
+    private Thread servicingThread; // Guarded by lifecycleLock; null when stopped
+    private volatile boolean running;
+    private final Map<Integer, Aircraft> inService = new ConcurrentHashMap<>(); // Handed to the backend, by aircraft id
+    private final AtomicInteger waiting = new AtomicInteger(); // aircraftForServicing.size(), readable without the lock
+    private final LongAdder serviced = new LongAdder();
+    private final Map<Integer, Integer> failedAttempts = new ConcurrentHashMap<>(); // By aircraft id
+    private final InProcessServicingBackend fallbackBackend = new InProcessServicingBackend(); // Cannot fail
 
     // Interface for handling plane servicing
     public interface FlightServicingHandler {
@@ -35,23 +35,56 @@ public class FlightServicingManager implements Runnable {
 
     // Constructor 
     public FlightServicingManager(FlightServicingHandler servicingHandler) {
+        this(servicingHandler, 0);
+    }
+
+    // Constructor with a bounded servicing pool; 0 threads means an unbounded (cached) pool
+    public FlightServicingManager(FlightServicingHandler servicingHandler, int servicingThreads) {
+        this(servicingHandler, new ProcessServicingBackend(servicingThreads));
+    }
+
+    // Constructor with an explicit servicing backend
+    public FlightServicingManager(FlightServicingHandler servicingHandler, ServicingBackend backend) {
         this.servicingHandler = servicingHandler;
-        this.executorService = Executors.newCachedThreadPool(); // Use a cached thread pool for servicing tasks
+        this.backend = backend;
     }
 
-    // Adds an aircraft to the list for servicing if it is not already being serviced or in flight
+    // Adds a landed aircraft to the list for servicing if it is not already queued
     public void addAircraftForServicing(Aircraft aircraft) {
         synchronized (this) {
-            if (!aircraft.isBeingServiced() && !aircraft.isInFlight()) {
+            // Only the thread that moved the aircraft from LANDED to SERVICING gets here, once per landing
+            if (aircraft.getState() == AircraftState.SERVICING) {
                 aircraftForServicing.add(aircraft);
+                waiting.incrementAndGet();
                 notifyAll(); // Notify the servicing thread that new aircraft are available
             }
         }
     }
 
+    /**
+     * Starts the servicing loop (and the backend) on a thread of the given kind, unless it is
+     * already running. After stop() it can be started again; it waits for a stop() in progress.
+     */
+    public void start(ExecutionMode executionMode) {
+        synchronized (lifecycleLock) {
+            if (servicingThread != null) {
+                return;
+            }
+            requeueUnfinished(); // Services a backend abandoned after the last stop() returned
+            running = true; // Before the loop starts, so it cannot see a previous stop()
+            servicingThread = executionMode.effective().startThread("FlightServicingManager", this);
+        }
+    }
+
     @Override
     public void run() {
         LOGGER.info(() -> "FlightServicingManager thread started.");
+        try {
+            backend.start(); // Launch and warm up the backend before the first landing
+            LOGGER.info(() -> "Servicing with " + backend.describe());
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, () -> "Error starting " + backend.describe() + ": " + e.getMessage());
+        }
         while (running) {
             Aircraft aircraftToService = null;
             synchronized (this) {
@@ -64,6 +97,7 @@ public class FlightServicingManager implements Runnable {
                 }
                 if (!aircraftForServicing.isEmpty()) {
                     aircraftToService = aircraftForServicing.remove(0); // Remove aircraft from the list for servicing
+                    waiting.decrementAndGet();
                 }
             }
             if (aircraftToService != null) {
@@ -73,85 +107,107 @@ public class FlightServicingManager implements Runnable {
         LOGGER.info(() -> "FlightServicingManager thread stopped.");
     }
 
-    // Services the given aircraft by submitting a task to the executor service
+    // Services the given aircraft by passing it to the servicing backend
     private void serviceAircraft(Aircraft aircraft) {
-        if (executorService.isShutdown()) {
-            LOGGER.warning(() -> "Attempted to service aircraft but ExecutorService is shut down.");
-            return;
+        if (aircraft.getState() != AircraftState.SERVICING) {
+            return; // Already serviced, by a service that finished after being requeued
         }
-
         int airportId = aircraft.getOriginAirport().getId(); 
         int aircraftId = aircraft.getId(); 
 
-        try {
-            executorService.submit(() -> {
-                Process proc = null;
-                try {
-                    LOGGER.info(() -> "Servicing started for Aircraft " + aircraftId + " at Airport " + airportId);
-
-                    // Start the process to service the aircraft
-                    proc = new ProcessBuilder(getCommand("saed_plane_service"),
-                            String.valueOf(airportId), String.valueOf(aircraftId)).start();
-
-                    // Handle the process's input stream
-                    try (BufferedReader reader = new BufferedReader(new InputStreamReader(proc.getInputStream()))) {
-                        String servicingOutput = null;
-                        String line;
-                        while ((line = reader.readLine()) != null) {
-                            servicingOutput = line; // Read the output from the process
-                        }
-
-                        int exitCode = proc.waitFor(); // Wait for the process to complete
-
-                        if (exitCode == 0 && servicingOutput != null) {
-                            LOGGER.info(() -> "Servicing completed for Aircraft " + aircraftId + " at Airport " + airportId);
-                            servicingHandler.handlePlaneServicing(airportId, aircraftId); // Notify the handler of completed servicing
-                        } else {
-                            LOGGER.warning(() -> "Servicing failed for Aircraft " + aircraftId + " at Airport " + airportId);
-                        }
-                    }
-                } catch (IOException | InterruptedException e) {
-                    LOGGER.log(Level.SEVERE, () -> "Error during servicing Aircraft " + aircraftId + " at Airport " + airportId + ": " + e.getMessage());
-                    Thread.currentThread().interrupt(); // Restore interrupted status
-                } finally {
-                    if (proc != null) {
-                        proc.destroy(); // process is destroyed
-                    }
-                }
-            });
-        } catch (RejectedExecutionException e) {
-            LOGGER.log(Level.WARNING, () -> "Error submitting servicing task for Aircraft " + aircraftId + " at Airport " + airportId + ": " + e.getMessage());
+        LOGGER.info(() -> "Servicing started for Aircraft " + aircraftId + " at Airport " + airportId);
+        inService.put(aircraftId, aircraft);
+        backend.service(airportId, aircraftId, this::onServiced);
+    }
+
+    /**
+     * Called by a backend once an aircraft's servicing has finished. A failed service is retried,
+     * up to MAX_ATTEMPTS times on the backend and then in-process, so no aircraft is left in
+     * SERVICING. A failure while stopping is left in progress, for stop() to requeue.
+     */
+    private void onServiced(int airportId, int aircraftId, boolean success) {
+        if (!success && !running) {
+            return; // Abandoned by the backend's shutdown, not a real failure
+        }
+        Aircraft aircraft = inService.remove(aircraftId);
+        serviced.increment();
+        if (success) {
+            failedAttempts.remove(aircraftId);
+            LOGGER.info(() -> "Servicing completed for Aircraft " + aircraftId + " at Airport " + airportId);
+            servicingHandler.handlePlaneServicing(airportId, aircraftId); // Notify the handler of completed servicing
+        } else if (aircraft != null) {
+            retry(aircraft, airportId);
         }
     }
 
-    // Stops the servicing manager and shuts down the executor service
-    public void stop() {
-        running = false; // Set running flag to false to stop the servicing loop
-        synchronized (this) {
-            notifyAll(); // Notify any waiting threads to wake up
+    // Services a failed aircraft again: queued for the backend, or in-process once its attempts are used up
+    private void retry(Aircraft aircraft, int airportId) {
+        int aircraftId = aircraft.getId();
+        int attempts = failedAttempts.merge(aircraftId, 1, Integer::sum);
+        if (attempts < MAX_ATTEMPTS) {
+            LOGGER.warning(() -> String.format("Servicing failed for Aircraft %d at Airport %d; retrying (attempt %d of %d)",
+                    aircraftId, airportId, attempts + 1, MAX_ATTEMPTS));
+            addAircraftForServicing(aircraft);
+        } else {
+            LOGGER.warning(() -> String.format("Servicing failed %d times for Aircraft %d at Airport %d; servicing it in-process",
+                    attempts, aircraftId, airportId));
+            failedAttempts.remove(aircraftId);
+            inService.put(aircraftId, aircraft);
+            fallbackBackend.start();
+            fallbackBackend.service(airportId, aircraftId, this::onServiced);
         }
-        shutdownExecutorService(); 
     }
 
-    // Shuts down the executor service and ensures it is terminated properly
-    private void shutdownExecutorService() {
-        if (executorService != null && !executorService.isShutdown()) {
-            executorService.shutdown(); // Initiate an orderly shutdown
-            try {
-                if (!executorService.awaitTermination(60, TimeUnit.SECONDS)) {
-                    executorService.shutdownNow(); // Force shutdown if not terminated in time
+    // Returns the number of landed aircraft waiting to be handed to the backend
+    public int getWaitingCount() {
+        return waiting.get();
+    }
+
+    // Returns the number of services handed to the backend and not yet finished
+    public int getInServiceCount() {
+        return inService.size();
+    }
+
+    // Returns the number of services finished (successfully or not) so far
+    public long getServicedCount() {
+        return serviced.sum();
+    }
+
+    public ServicingBackend getBackend() {
+        return backend;
+    }
+
+    // Stops the servicing loop, waits for it to finish, and shuts down the backend
+    public void stop() {
+        synchronized (lifecycleLock) {
+            running = false; // Set running flag to false to stop the servicing loop
+            synchronized (this) {
+                notifyAll(); // Notify any waiting threads to wake up
+            }
+            if (servicingThread != null) {
+                try {
+                    servicingThread.join(); // So a restart never shares the backend with the old loop
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt(); // Restore interrupted status
                 }
-            } catch (InterruptedException e) {
-                executorService.shutdownNow(); // Force shutdown on interruption
-                Thread.currentThread().interrupt(); // Restore interrupted status
+                servicingThread = null;
             }
+            backend.stop(); // Stop the servicing backend and any worker processes
+            fallbackBackend.stop();
+            requeueUnfinished();
         }
     }
 
-    // Determines the command to execute based on the operating system
-    private String getCommand(String baseName) {
-        String os = System.getProperty("os.name").toLowerCase();
-        return os.contains("win") ? baseName + ".bat" : baseName; // Use .bat file for Windows, otherwise use base name
+    // Queues again any service the backend dropped on stopping, so a restart finishes it
+    private void requeueUnfinished() {
+        synchronized (this) {
+            for (Aircraft aircraft : inService.values()) {
+                if (inService.remove(aircraft.getId()) != null && aircraft.getState() == AircraftState.SERVICING) {
+                    aircraftForServicing.add(aircraft);
+                    waiting.incrementAndGet();
+                }
+            }
+        }
+        LOGGER.fine(() -> waiting.get() + " aircraft left waiting for servicing.");
     }
 }
-
@@ -4,7 +4,6 @@ package edu.curtin.saed.assignment1;
 
 import java.awt.*;
 import java.awt.event.*;
-import java.awt.geom.AffineTransform;
 import javax.swing.*;
 import java.util.*;
 import java.util.List; // To use java.util.List (and not java.awt.List).
@@ -28,20 +27,51 @@ import java.util.List; // To use java.util.List (and not java.awt.List).
  *
  * Remember to call area.repaint() to ask the GUI to redraw the panel after you've modified
  * something. If you're making several changes at once, only call it once at the end.
+ *
+ * Icons that never move (such as airports) can instead go in getBackgroundIcons(). They are
+ * drawn, with the grid lines, into an offscreen image that is only rebuilt when the panel is
+ * resized or invalidateBackground() is called, and each repaint just copies the part it needs.
+ *
+ * For large scenes, the drawing can be moved off the GUI thread altogether: after
+ * setRenderer(...), the panel just copies the latest frame finished by that GridRenderer (which
+ * redraws only the parts that changed), and its own icon lists are not drawn.
  */
 public class GridArea extends JPanel
 {
     private double gridWidth;
     private double gridHeight;
-    private double gridSquareSize = 1.0; // Re-calculated
     private boolean gridLines = true;
     private Color captionColour = Color.WHITE;
     private List<GridAreaIcon> icons = new ArrayList<>();
+    private List<GridAreaIcon> backgroundIcons = new ArrayList<>();
+    private final GridPainter painter; // Only used on the GUI thread
+    private volatile GridRenderer renderer;
 
     public GridArea(double gridWidth, double gridHeight)
     {
         this.gridWidth = gridWidth;
         this.gridHeight = gridHeight;
+        this.painter = new GridPainter(gridWidth, gridHeight, gridLines, captionColour);
+    }
+
+    public double getGridWidth()
+    {
+        return gridWidth;
+    }
+
+    public double getGridHeight()
+    {
+        return gridHeight;
+    }
+
+    public boolean isGridLines()
+    {
+        return gridLines;
+    }
+
+    public Color getCaptionColour()
+    {
+        return captionColour;
     }
     
     /**
@@ -50,6 +80,8 @@ public class GridArea extends JPanel
     public void setGridLines(boolean gridLines)
     {
         this.gridLines = gridLines;
+        painter.setGridLines(gridLines);
+        repaint();
     }
     
     /**
@@ -64,83 +96,63 @@ public class GridArea extends JPanel
         return icons;
     }
 
+    /**
+     * Retrieves a modifiable list of GridAreaIcons drawn into the cached background, beneath the
+     * other icons. Call invalidateBackground() after changing the list or any of its icons.
+     */
+    public List<GridAreaIcon> getBackgroundIcons()
+    {
+        return backgroundIcons;
+    }
+
     /**
      * Sets the colour used to display the caption text for each icon.
      */
     public void setCaptionColour(Color captionColour)
     {
         this.captionColour = captionColour;
+        painter.setCaptionColour(captionColour);
+        repaint();
     }
-    
+
+    /**
+     * Discards the cached background, so that it is redrawn (in full) on the next repaint.
+     */
+    public void invalidateBackground()
+    {
+        painter.invalidateBackground();
+        repaint();
+    }
+
+    /**
+     * Hands drawing over to a GridRenderer (or back to this panel, if null). From then on,
+     * painting only copies the renderer's latest frame.
+     */
+    public void setRenderer(GridRenderer renderer)
+    {
+        this.renderer = renderer;
+        repaint();
+    }
+
     /**
      * Redraws the grid area, either because the user is manipulating the window, OR because you've
-     * called 'repaint()'.
+     * called 'repaint()'. Only the icons that overlap the area being redrawn are drawn. With a
+     * renderer, the renderer's latest frame is copied instead.
      */
     @Override
     public void paintComponent(Graphics g)
     {
-        super.paintComponent(g);
         Graphics2D gfx = (Graphics2D) g;
-        gfx.setRenderingHint(RenderingHints.KEY_INTERPOLATION, 
-                             RenderingHints.VALUE_INTERPOLATION_BICUBIC);
-        
-        // First, calculate how big each grid cell should be, in pixels. (We must redo this
-        // every time, because the size can change.)
-        gridSquareSize = Math.min(getWidth() / gridWidth,
-                                  getHeight() / gridHeight);
-
-        if(gridLines)
-        {
-            // Draw the grid lines. This may help for debugging purposes, and just generally
-            // to see what's going on.
-            gfx.setColor(Color.GRAY);
-
-            for(double gridX = 0.0; gridX < gridWidth; gridX++) // Internal vertical grid lines
-            {
-                int x = (int) ((gridX + 0.5) * gridSquareSize);
-                gfx.drawLine(x, (int)(gridSquareSize / 2.0),
-                             x, (int)((gridHeight - 0.5) * gridSquareSize));
-            }
-            
-            for(double gridY = 0.0; gridY < gridHeight; gridY++) // Internal horizontal grid lines
-            {
-                int y = (int) ((gridY + 0.5) * gridSquareSize);
-                gfx.drawLine((int)(gridSquareSize / 2.0), y,
-                             (int)((gridWidth - 0.5) * gridSquareSize), y);
-            }
-        }
-        
-        // Draw all the images and their captions.
-        for(var icon : icons)
+        GridRenderer frameSource = renderer;
+        if(frameSource != null)
         {
-            if(icon.isShown())
-            {
-                drawIcon(gfx, icon);
-            }
+            frameSource.drawFrame(gfx, getBackground());
+            return;
         }
-    }
-    
-    
-    /** 
-     * Draw a GridAreaIcon -- its image and caption -- at their proper location. Only
-     * to be called from within paintComponent().
-     */
-    private void drawIcon(Graphics2D gfx, GridAreaIcon icon)
-    {
-        // Put the actual image on the screen.
-        var transform = new AffineTransform();
-        transform.translate(0.5, 0.5);
-        transform.scale(gridSquareSize, gridSquareSize);
-        transform.concatenate(icon.getTransform());
-        gfx.drawImage(icon.getImage(), transform, null);
 
-        // Draw the caption below the image.
-        gfx.setColor(captionColour);
-        FontMetrics fm = gfx.getFontMetrics();
-        String caption = icon.getCaption();
-        gfx.drawString(
-            caption,
-            (int) ((icon.getX() + 0.5) * gridSquareSize - fm.stringWidth(caption) / 2.0),
-            (int) ((icon.getY() + 1.0) * gridSquareSize) + fm.getHeight());
+        // The grid lines and background icons come from the cached background image, then the
+        // images and their captions that fall inside the area being redrawn are drawn over it.
+        painter.drawBackground(gfx, getWidth(), getHeight(), getBackground(), getFont(), backgroundIcons);
+        painter.drawIcons(gfx, painter.getSquareSize(getWidth(), getHeight()), icons, gfx.getClipBounds());
     }
 }
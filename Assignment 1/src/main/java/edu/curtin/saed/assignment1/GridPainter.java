@@ -0,0 +1,150 @@
+package edu.curtin.saed.assignment1;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+/**
+ * Draws a grid of GridAreaIcons onto any Graphics2D: the grid lines and background icons, from an
+ * offscreen image cached at the current size, then the other icons as pre-scaled, pre-rotated
+ * sprites with their captions. GridArea uses one on the Event Dispatch Thread, and GridRenderer
+ * another on its render thread. Instances are not thread-safe; each is used by one thread.
+ */
+public class GridPainter {
+
+    private final double gridWidth;
+    private final double gridHeight;
+    private final SpriteCache sprites = new SpriteCache();
+    private final Rectangle scratchBounds = new Rectangle();
+    private boolean gridLines;
+    private Color captionColour;
+
+    // The grid lines and background icons, drawn at the current size
+    private BufferedImage background;
+    private boolean backgroundValid;
+
+    // Constructor
+    public GridPainter(double gridWidth, double gridHeight, boolean gridLines, Color captionColour) {
+        this.gridWidth = gridWidth;
+        this.gridHeight = gridHeight;
+        this.gridLines = gridLines;
+        this.captionColour = captionColour;
+    }
+
+    public void setGridLines(boolean gridLines) {
+        this.gridLines = gridLines;
+        backgroundValid = false;
+    }
+
+    public void setCaptionColour(Color captionColour) {
+        this.captionColour = captionColour;
+        backgroundValid = false;
+    }
+
+    // Discards the cached background, so that it is redrawn on the next drawBackground()
+    public void invalidateBackground() {
+        backgroundValid = false;
+    }
+
+    // Returns the size of a grid cell, in pixels, for an area of the given size
+    public double getSquareSize(int width, int height) {
+        return Math.min(width / gridWidth, height / gridHeight);
+    }
+
+    /**
+     * Copies the background (grid lines and the given icons) onto gfx, first redrawing it if the
+     * size has changed or it has been invalidated. Only the part inside gfx's clip is copied.
+     */
+    public void drawBackground(Graphics2D gfx, int width, int height, Color colour, Font font,
+                               List<GridAreaIcon> backgroundIcons) {
+        if (!backgroundValid || background == null
+                || background.getWidth() != Math.max(1, width) || background.getHeight() != Math.max(1, height)) {
+            renderBackground(width, height, colour, font, backgroundIcons);
+        }
+        gfx.drawImage(background, 0, 0, null);
+    }
+
+    private void renderBackground(int width, int height, Color colour, Font font, List<GridAreaIcon> backgroundIcons) {
+        int imageWidth = Math.max(1, width);
+        int imageHeight = Math.max(1, height);
+        if (background == null || background.getWidth() != imageWidth || background.getHeight() != imageHeight) {
+            background = new BufferedImage(imageWidth, imageHeight, BufferedImage.TYPE_INT_RGB);
+        }
+        double squareSize = getSquareSize(width, height);
+
+        Graphics2D gfx = background.createGraphics();
+        try {
+            gfx.setColor(colour);
+            gfx.fillRect(0, 0, imageWidth, imageHeight);
+
+            if (gridLines) {
+                gfx.setColor(Color.GRAY);
+                for (double gridX = 0.0; gridX < gridWidth; gridX++) { // Internal vertical grid lines
+                    int x = (int) ((gridX + 0.5) * squareSize);
+                    gfx.drawLine(x, (int) (squareSize / 2.0), x, (int) ((gridHeight - 0.5) * squareSize));
+                }
+                for (double gridY = 0.0; gridY < gridHeight; gridY++) { // Internal horizontal grid lines
+                    int y = (int) ((gridY + 0.5) * squareSize);
+                    gfx.drawLine((int) (squareSize / 2.0), y, (int) ((gridWidth - 0.5) * squareSize), y);
+                }
+            }
+
+            gfx.setFont(font);
+            drawIcons(gfx, squareSize, backgroundIcons, null);
+        } finally {
+            gfx.dispose();
+        }
+        backgroundValid = true;
+    }
+
+    /**
+     * Draws every shown icon that overlaps the given clip (or all of them, if it is null), with
+     * its caption, in gfx's current font.
+     */
+    public void drawIcons(Graphics2D gfx, double squareSize, List<GridAreaIcon> icons, Rectangle clip) {
+        gfx.setColor(captionColour);
+        FontMetrics fm = gfx.getFontMetrics();
+        for (GridAreaIcon icon : icons) {
+            if (icon.isShown() && (clip == null || clip.intersects(getBounds(icon, fm, squareSize, scratchBounds)))) {
+                drawIcon(gfx, fm, squareSize, icon);
+            }
+        }
+    }
+
+    // Draws one icon by blitting its cached sprite, then its caption centred below it
+    private void drawIcon(Graphics2D gfx, FontMetrics fm, double squareSize, GridAreaIcon icon) {
+        int size = (int) Math.round(icon.getScale() * squareSize);
+        if (size > 0) {
+            BufferedImage sprite = sprites.getSprite(icon.getImage(), size, icon.getRotation());
+            int padding = SpriteCache.getPadding(size);
+            gfx.drawImage(sprite, (int) (icon.getX() * squareSize + 0.5) - padding,
+                    (int) (icon.getY() * squareSize + 0.5) - padding, null);
+        }
+
+        String caption = icon.getCaption();
+        gfx.drawString(caption, (int) ((icon.getX() + 0.5) * squareSize - fm.stringWidth(caption) / 2.0),
+                (int) ((icon.getY() + 1.0) * squareSize) + fm.getHeight());
+    }
+
+    /**
+     * Sets bounds to the pixels covered by an icon's sprite and caption at the given cell size,
+     * and returns it.
+     */
+    public static Rectangle getBounds(GridAreaIcon icon, FontMetrics fm, double squareSize, Rectangle bounds) {
+        int size = (int) Math.round(icon.getScale() * squareSize);
+        int padding = SpriteCache.getPadding(size);
+        bounds.setBounds((int) (icon.getX() * squareSize + 0.5) - padding, (int) (icon.getY() * squareSize + 0.5) - padding,
+                size + 2 * padding, size + 2 * padding);
+
+        int captionWidth = fm.stringWidth(icon.getCaption());
+        int baseline = (int) ((icon.getY() + 1.0) * squareSize) + fm.getHeight();
+        int captionX = (int) ((icon.getX() + 0.5) * squareSize - captionWidth / 2.0);
+        bounds.add(captionX - 1, baseline - fm.getAscent() - 1);
+        bounds.add(captionX + captionWidth + 1, baseline + fm.getDescent() + 1);
+        return bounds;
+    }
+}
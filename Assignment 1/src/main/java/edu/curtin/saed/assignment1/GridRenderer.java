@@ -0,0 +1,373 @@
+package edu.curtin.saed.assignment1;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Rectangle;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongToDoubleFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Draws the map on its own thread, so the Event Dispatch Thread never lays out captions or draws
+ * sprites, however large the fleet is. Each frame is drawn from the latest FleetSnapshot onto a
+ * canvas kept by the render thread, and the parts that changed are then copied to the front
+ * buffer; the GridArea's paintComponent only copies the front buffer (see drawFrame()).
+ *
+ * Only the parts of the map where planes moved, turned, appeared or disappeared are redrawn: the
+ * renderer remembers where each plane was last drawn, and for each changed region copies the
+ * cached background and draws just the planes overlapping it, then asks Swing to repaint just
+ * that region. The cost of a frame thus follows the planes that changed, not the whole scene;
+ * if too many regions changed, the whole frame is redrawn instead.
+ *
+ * Frames are drawn on demand: submit() hands over a snapshot and wakes the thread, and snapshots
+ * submitted while a frame is being drawn are replaced by the newest one, so a slow frame never
+ * builds up a backlog. The plane icons (one per aircraft slot) and the GridPainter belong to the
+ * render thread alone.
+ *
+ * Snapshots are only published when something changes state, so planes in flight are placed by
+ * working out their positions from the snapshot's flights at the simulated time of each frame
+ * (see setClock()). Planes thus glide smoothly at the frame rate (see setFrameRate()) however low
+ * the tick rate is: while any plane is short of its destination, the thread keeps drawing frames
+ * by itself, pausing when simulated time stops (e.g. while the simulation is paused).
+ */
+public class GridRenderer implements Runnable {
+
+    private static final Logger LOGGER = Logger.getLogger(GridRenderer.class.getName());
+    private static final int MAX_DIRTY_REGIONS = 32; // Beyond this, redrawing everything is cheaper
+
+    private final GridArea area;
+    private final GridPainter painter;
+    private final List<GridAreaIcon> backgroundIcons;
+    private final Color backgroundColour;
+    private final Font font;
+    private final Image planeImage = SpriteCache.getImage("plane.png");
+
+    // Handed over from other threads
+    private volatile FleetSnapshot latest;
+    private volatile boolean frameRequested;
+    private volatile int width;
+    private volatile int height;
+    private volatile boolean running;
+    private volatile long frameIntervalNanos = TimeUnit.SECONDS.toNanos(1) / 60;
+    private volatile LongToDoubleFunction clock; // System.nanoTime() to simulated seconds
+    private Thread renderThread;
+
+    // Only touched by the render thread
+    private final List<GridAreaIcon> planeIcons = new ArrayList<>();
+    private final List<Drawn> drawnIcons = new ArrayList<>(); // Where each plane icon was last drawn
+    private final Rectangle[] dirtyRegions = new Rectangle[MAX_DIRTY_REGIONS];
+    private final List<GridAreaIcon> regionIcons = new ArrayList<>();
+    private final Rectangle scratchBounds = new Rectangle();
+    private BufferedImage canvas;
+    private double drawnSquareSize = -1.0;
+    private FleetSnapshot current;
+    private boolean animating;        // Whether any plane has yet to reach its destination
+    private double drawnTime = Double.NaN; // The simulated time of the last frame
+
+    // The finished frame, guarded by frameLock
+    private final Object frameLock = new Object();
+    private BufferedImage front;
+
+    // How, and whether, a plane icon was last drawn
+    private static final class Drawn {
+        private final Rectangle bounds = new Rectangle();
+        private boolean shown;
+        private double rotation;
+
+        private boolean matches(GridAreaIcon icon, Rectangle newBounds) {
+            return shown == icon.isShown() && (!shown || bounds.equals(newBounds) && rotation == icon.getRotation());
+        }
+
+        private void update(GridAreaIcon icon, Rectangle newBounds) {
+            shown = icon.isShown();
+            bounds.setBounds(newBounds);
+            rotation = icon.getRotation();
+        }
+    }
+
+    /**
+     * Constructor; to be called on the Event Dispatch Thread once the area's background icons are
+     * in place. The area is handed over to the renderer, and follows its size from then on.
+     */
+    public GridRenderer(GridArea area) {
+        this.area = area;
+        this.painter = new GridPainter(area.getGridWidth(), area.getGridHeight(), area.isGridLines(),
+                area.getCaptionColour());
+        this.backgroundIcons = List.copyOf(area.getBackgroundIcons());
+        this.backgroundColour = area.getBackground();
+        this.font = area.getFont();
+        this.width = area.getWidth();
+        this.height = area.getHeight();
+        for (int i = 0; i < MAX_DIRTY_REGIONS; i++) {
+            dirtyRegions[i] = new Rectangle();
+        }
+        area.addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                width = area.getWidth();
+                height = area.getHeight();
+                requestFrame(); // Redraw the last snapshot at the new size
+            }
+        });
+        area.setRenderer(this);
+    }
+
+    // Starts the render thread, if it is not already running, and draws a first frame
+    public void start() {
+        synchronized (this) {
+            if (running) {
+                return;
+            }
+            running = true;
+            renderThread = ExecutionMode.PLATFORM.threadFactory("GridRenderer").newThread(this);
+            renderThread.start();
+        }
+        requestFrame();
+    }
+
+    // Stops the render thread and waits for the current frame to finish
+    public void stop() {
+        Thread thread;
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            thread = renderThread;
+            renderThread = null;
+        }
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Preserve interruption status
+        }
+    }
+
+    // Sets the rate at which frames are drawn while planes are moving between snapshots
+    public void setFrameRate(double framesPerSecond) {
+        frameIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / framesPerSecond);
+    }
+
+    /**
+     * Sets the simulated time at which planes are drawn for a frame drawn at a given
+     * System.nanoTime(), e.g. AircraftStateStore.getClockSeconds(long). Without a clock, planes are
+     * drawn where they were when the snapshot was taken.
+     */
+    public void setClock(LongToDoubleFunction clock) {
+        this.clock = clock;
+        requestFrame();
+    }
+
+    // Asks for a frame of the given snapshot, replacing any snapshot not yet drawn; any thread
+    public void submit(FleetSnapshot snapshot) {
+        latest = snapshot;
+        requestFrame();
+    }
+
+    private void requestFrame() {
+        frameRequested = true;
+        Thread thread;
+        synchronized (this) {
+            thread = renderThread;
+        }
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Copies the latest finished frame onto gfx, or fills it with the given colour until the first
+     * frame is ready. Called from GridArea.paintComponent() on the Event Dispatch Thread.
+     */
+    public void drawFrame(Graphics2D gfx, Color fill) {
+        synchronized (frameLock) {
+            if (front != null) {
+                gfx.drawImage(front, 0, 0, null);
+                return;
+            }
+        }
+        gfx.setColor(fill);
+        gfx.fillRect(0, 0, area.getWidth(), area.getHeight());
+    }
+
+    @Override
+    public void run() {
+        long nextFrameNanos = 0;
+        while (running) {
+            long now = System.nanoTime();
+            if (!frameRequested && !(animating && now - nextFrameNanos >= 0)) {
+                if (animating) {
+                    LockSupport.parkNanos(this, nextFrameNanos - now); // Until the next interpolated frame
+                } else {
+                    LockSupport.park(this); // Until submit(), a resize or stop()
+                }
+                continue;
+            }
+            frameRequested = false;
+            nextFrameNanos = now + frameIntervalNanos;
+            try {
+                render(latest, now);
+            } catch (RuntimeException e) { // NOPMD - a failed frame must not kill the render thread
+                LOGGER.log(Level.WARNING, e, () -> "Could not render frame");
+                animating = false;
+            }
+        }
+    }
+
+    private void render(FleetSnapshot fleet, long now) {
+        int frameWidth = width;
+        int frameHeight = height;
+        if (frameWidth <= 0 || frameHeight <= 0) {
+            return; // Not laid out yet
+        }
+        if (fleet != null) {
+            current = fleet;
+        }
+        if (current != null) {
+            LongToDoubleFunction simulatedTime = clock;
+            updatePlaneIcons(simulatedTime == null ? current.getClockSeconds() : simulatedTime.applyAsDouble(now));
+        }
+
+        if (canvas == null || canvas.getWidth() != frameWidth || canvas.getHeight() != frameHeight) {
+            canvas = new BufferedImage(frameWidth, frameHeight, BufferedImage.TYPE_INT_RGB);
+            drawnSquareSize = -1.0;
+        }
+        int dirtyCount;
+        Graphics2D gfx = canvas.createGraphics();
+        try {
+            gfx.setFont(font);
+            double squareSize = painter.getSquareSize(frameWidth, frameHeight);
+            dirtyCount = findDirtyRegions(gfx.getFontMetrics(), squareSize);
+            if (dirtyCount < 0) {
+                painter.drawBackground(gfx, frameWidth, frameHeight, backgroundColour, font, backgroundIcons);
+                painter.drawIcons(gfx, squareSize, planeIcons, null);
+            }
+            for (int i = 0; i < dirtyCount; i++) {
+                Rectangle region = dirtyRegions[i];
+                regionIcons.clear();
+                for (int slot = 0; slot < planeIcons.size(); slot++) {
+                    Drawn drawn = drawnIcons.get(slot);
+                    if (drawn.shown && drawn.bounds.intersects(region)) {
+                        regionIcons.add(planeIcons.get(slot));
+                    }
+                }
+                gfx.setClip(region);
+                painter.drawBackground(gfx, frameWidth, frameHeight, backgroundColour, font, backgroundIcons);
+                painter.drawIcons(gfx, squareSize, regionIcons, null);
+            }
+            regionIcons.clear();
+        } finally {
+            gfx.dispose();
+        }
+        if (dirtyCount == 0) {
+            return; // Nothing changed
+        }
+
+        synchronized (frameLock) {
+            if (front == null || front.getWidth() != frameWidth || front.getHeight() != frameHeight) {
+                front = new BufferedImage(frameWidth, frameHeight, BufferedImage.TYPE_INT_RGB);
+                dirtyCount = -1;
+            }
+            Graphics2D frontGfx = front.createGraphics();
+            try {
+                for (int i = 0; i < Math.max(1, dirtyCount); i++) {
+                    frontGfx.setClip(dirtyCount < 0 ? null : dirtyRegions[i]);
+                    frontGfx.drawImage(canvas, 0, 0, null);
+                }
+            } finally {
+                frontGfx.dispose();
+            }
+        }
+        // Safe from any thread; the EDT then only copies that part of the front buffer
+        if (dirtyCount < 0) {
+            area.repaint();
+        }
+        for (int i = 0; i < dirtyCount; i++) {
+            area.repaint(dirtyRegions[i]);
+        }
+    }
+
+    /**
+     * Records where each plane icon is now drawn, and collects the regions to redraw: the old and
+     * new bounds of every icon that moved, turned, appeared or disappeared. Returns the number of
+     * regions, or -1 if the whole frame must be redrawn (the cell size changed, or there are more
+     * than MAX_DIRTY_REGIONS).
+     */
+    private int findDirtyRegions(FontMetrics fm, double squareSize) {
+        boolean redrawAll = squareSize != drawnSquareSize;
+        drawnSquareSize = squareSize;
+        while (drawnIcons.size() < planeIcons.size()) {
+            drawnIcons.add(new Drawn());
+        }
+        int count = 0;
+        for (int slot = 0; slot < planeIcons.size(); slot++) {
+            GridAreaIcon icon = planeIcons.get(slot);
+            Drawn drawn = drawnIcons.get(slot);
+            if (icon.isShown()) {
+                GridPainter.getBounds(icon, fm, squareSize, scratchBounds);
+            }
+            if (redrawAll || drawn.matches(icon, scratchBounds)) {
+                drawn.update(icon, scratchBounds);
+                continue;
+            }
+            if (drawn.shown) {
+                count = addDirtyRegion(count, drawn.bounds);
+            }
+            if (icon.isShown()) {
+                count = addDirtyRegion(count, scratchBounds);
+            }
+            redrawAll = count < 0;
+            drawn.update(icon, scratchBounds);
+        }
+        return redrawAll ? -1 : count;
+    }
+
+    // Adds a region to redraw, returning the new count, or -1 if there are too many
+    private int addDirtyRegion(int count, Rectangle region) {
+        if (count < 0 || count == MAX_DIRTY_REGIONS) {
+            return -1;
+        }
+        dirtyRegions[count].setBounds(region);
+        return count + 1;
+    }
+
+    // Moves, turns, shows and hides one reused icon per aircraft slot to match the snapshot at the given time
+    private void updatePlaneIcons(double time) {
+        FleetSnapshot fleet = current;
+        for (int slot = planeIcons.size(); slot < fleet.size(); slot++) {
+            GridAreaIcon planeIcon = new GridAreaIcon(fleet.getStartX(slot), fleet.getStartY(slot), 0.0, 1.0,
+                    planeImage, "Plane " + fleet.getId(slot));
+            planeIcon.setShown(false);
+            planeIcons.add(planeIcon);
+        }
+
+        boolean moving = false;
+        for (int slot = 0; slot < fleet.size(); slot++) {
+            GridAreaIcon planeIcon = planeIcons.get(slot);
+            boolean inFlight = fleet.isInFlight(slot);
+            planeIcon.setShown(inFlight);
+            if (inFlight) {
+                planeIcon.setPosition(fleet.getX(slot, time), fleet.getY(slot, time));
+                moving |= fleet.isMoving(slot, time);
+                double dx = fleet.getTargetX(slot) - fleet.getStartX(slot);
+                double dy = fleet.getTargetY(slot) - fleet.getStartY(slot);
+                if (dx != 0.0 || dy != 0.0) {
+                    planeIcon.setRotation(Math.toDegrees(Math.atan2(dx, -dy))); // plane.png faces north; y grows downwards
+                }
+            }
+        }
+        animating = moving && !(time <= drawnTime); // Not while the clock is stopped; the next tick wakes us
+        drawnTime = time;
+    }
+}
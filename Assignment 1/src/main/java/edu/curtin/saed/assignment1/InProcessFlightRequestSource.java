@@ -0,0 +1,95 @@
+package edu.curtin.saed.assignment1;
+
+import java.util.Random;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates flight requests for one airport inside this JVM, with the same behaviour as the
+ * FlightRequests program in comms/lib/comms.jar: a uniformly random destination other than the
+ * origin, then a pause of 1 to 5 seconds before the next request.
+ *
+ * (FlightRequests itself only offers a main() method that prints to System.out and sleeps, so it
+ * cannot be driven in-process; this class reproduces it instead.) No thread is held per airport:
+ * each request is a task on a shared scheduler, so intake costs microseconds rather than a process.
+ * A request the sink has no room for is offered again every RETRY_MILLIS, and no new one is made
+ * meanwhile, as the real program would be held back writing to a full pipe.
+ */
+public class InProcessFlightRequestSource implements FlightRequestSource {
+
+    private static final int MIN_WAIT_MILLIS = 1000;
+    private static final int MAX_WAIT_MILLIS = 5000;
+    private static final int RETRY_MILLIS = 100;
+
+    private final int airportCount;
+    private final int originAirportId;
+    private final ScheduledExecutorService scheduler;
+    private final Random random;
+    private volatile boolean running;
+    private ScheduledFuture<?> nextRequest;
+    private FlightRequest heldRequest; // Made, but not yet taken by the sink; only touched by emit()
+
+    // Constructor
+    public InProcessFlightRequestSource(int airportCount, int originAirportId, ScheduledExecutorService scheduler, long seed) {
+        if (airportCount < 2 || originAirportId < 0 || originAirportId >= airportCount) {
+            throw new IllegalArgumentException(String.format(
+                    "Need at least 2 airports and a valid origin: %d airports, origin %d", airportCount, originAirportId));
+        }
+        this.airportCount = airportCount;
+        this.originAirportId = originAirportId;
+        this.scheduler = scheduler;
+        this.random = new Random(seed);
+    }
+
+    @Override
+    public void start(FlightRequestManager.RequestSink sink) {
+        synchronized (this) {
+            running = true;
+            scheduleNext(sink, 0);
+        }
+    }
+
+    // Emits one request (or the one held back), then schedules the next after a random pause
+    private void emit(FlightRequestManager.RequestSink sink) {
+        if (!running) {
+            return;
+        }
+        FlightRequest request = heldRequest;
+        if (request == null) {
+            int destinationAirportId = random.nextInt(airportCount - 1);
+            if (destinationAirportId >= originAirportId) {
+                destinationAirportId++; // Skip the origin itself
+            }
+            request = new FlightRequest(0, 0, 0, originAirportId, destinationAirportId);
+        }
+        boolean taken = sink.offer(request);
+        heldRequest = taken ? null : request;
+        synchronized (this) {
+            if (running) {
+                scheduleNext(sink, taken ? MIN_WAIT_MILLIS + random.nextInt(MAX_WAIT_MILLIS - MIN_WAIT_MILLIS)
+                        : RETRY_MILLIS);
+            }
+        }
+    }
+
+    private void scheduleNext(FlightRequestManager.RequestSink sink, long delayMillis) {
+        nextRequest = scheduler.schedule(() -> emit(sink), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        synchronized (this) {
+            running = false;
+            if (nextRequest != null) {
+                nextRequest.cancel(false);
+                nextRequest = null;
+            }
+        }
+    }
+
+    @Override
+    public String describe() {
+        return "in-process generator for Airport " + originAirportId;
+    }
+}
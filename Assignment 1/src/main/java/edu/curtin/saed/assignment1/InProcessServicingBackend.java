@@ -0,0 +1,77 @@
+package edu.curtin.saed.assignment1;
+
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Services aircraft inside this JVM, with the same behaviour as the PlaneService program in
+ * comms/lib/comms.jar: each service takes a random 1 to 5 seconds and then succeeds.
+ *
+ * (PlaneService itself only offers a main() method that sleeps and prints to System.out, so it
+ * cannot be called in-process; this class reproduces it instead.) Services in progress are
+ * scheduled tasks rather than sleeping threads, so one thread handles any number of them.
+ */
+public class InProcessServicingBackend implements ServicingBackend {
+
+    private static final Logger LOGGER = Logger.getLogger(InProcessServicingBackend.class.getName());
+    private static final int MIN_WAIT_MILLIS = 1000;
+    private static final int MAX_WAIT_MILLIS = 5000;
+
+    private ScheduledExecutorService scheduler;
+
+    @Override
+    public void start() {
+        synchronized (this) {
+            if (scheduler == null || scheduler.isShutdown()) {
+                scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "InProcessServicing");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+        }
+    }
+
+    @Override
+    public void service(int airportId, int aircraftId, ServicingCallback callback) {
+        ScheduledExecutorService current;
+        synchronized (this) {
+            current = scheduler;
+        }
+        if (current == null) {
+            LOGGER.warning(() -> "Servicing requested before the in-process backend was started.");
+            callback.onServiced(airportId, aircraftId, false);
+            return;
+        }
+        try {
+            current.schedule(() -> callback.onServiced(airportId, aircraftId, true),
+                    serviceTimeMillis(ThreadLocalRandom.current()), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            LOGGER.fine(() -> "Servicing request dropped after shutdown: " + e.getMessage());
+        }
+    }
+
+    // Returns a service time drawn the same way as PlaneService's
+    public static long serviceTimeMillis(Random random) {
+        return MIN_WAIT_MILLIS + random.nextInt(MAX_WAIT_MILLIS - MIN_WAIT_MILLIS);
+    }
+
+    @Override
+    public void stop() {
+        synchronized (this) {
+            if (scheduler != null) {
+                scheduler.shutdownNow();
+            }
+        }
+    }
+
+    @Override
+    public String describe() {
+        return "in-process servicing";
+    }
+}
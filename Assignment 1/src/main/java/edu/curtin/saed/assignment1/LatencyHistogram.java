@@ -0,0 +1,177 @@
+package edu.curtin.saed.assignment1;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of durations in nanoseconds, for percentiles such as p50, p99 and p99.9.
+ * record() allocates nothing and takes no lock, so it can be called from any thread on every event.
+ *
+ * Buckets are log-linear, as in HdrHistogram: values below 128 have a bucket each, and every power
+ * of two above that is split into 64 equal buckets, so any recorded value is reported to within
+ * 1/64 (about 1.6%) of its true value, from nanoseconds up to Long.MAX_VALUE, in 3712 buckets.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;    // Buckets per power of two
+    private static final int LINEAR_LIMIT = SUB_BUCKET_COUNT << 1;       // Values below this are exact
+    private static final int LINEAR_MAGNITUDE = SUB_BUCKET_BITS + 1;     // Highest bit of LINEAR_LIMIT
+    private static final int BUCKET_COUNT = LINEAR_LIMIT + (Long.SIZE - 1 - LINEAR_MAGNITUDE) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    // Records one duration; negative durations (clock adjustments) are recorded as zero
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketIndex(value));
+        totalNanos.addAndGet(value);
+        long max = maxNanos.get();
+        while (value > max && !maxNanos.compareAndSet(max, value)) {
+            max = maxNanos.get();
+        }
+    }
+
+    // Records the time elapsed since the given System.nanoTime() value
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    // Copies the current counts; values recorded meanwhile may or may not be included
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKET_COUNT];
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            copy[i] = counts.get(i);
+            count += copy[i];
+        }
+        return new Snapshot(copy, count, totalNanos.get(), maxNanos.get());
+    }
+
+    /**
+     * Fills cumulative[i] with the number of recorded values at or below boundsNanos[i] (which
+     * must be ascending), reading the live counts without copying them, and returns the total
+     * count. A value within 1/64 below a bound may be counted above it.
+     */
+    public long cumulativeCounts(long[] boundsNanos, long[] cumulative) {
+        long seen = 0;
+        int bound = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long count = counts.get(i);
+            if (count == 0) {
+                continue;
+            }
+            long upper = bucketUpperBound(i);
+            while (bound < boundsNanos.length && upper > boundsNanos[bound]) {
+                cumulative[bound++] = seen;
+            }
+            seen += count;
+        }
+        while (bound < boundsNanos.length) {
+            cumulative[bound++] = seen;
+        }
+        return seen;
+    }
+
+    // Returns the sum of all recorded values
+    public long getTotalNanos() {
+        return totalNanos.get();
+    }
+
+    // Clears all recorded values
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        totalNanos.set(0);
+        maxNanos.set(0);
+    }
+
+    private static int bucketIndex(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int magnitude = Long.SIZE - 1 - Long.numberOfLeadingZeros(value); // Position of the highest set bit
+        int subBucket = (int) (value >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+        return LINEAR_LIMIT + (magnitude - LINEAR_MAGNITUDE) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    // Returns the largest value that falls in the given bucket
+    private static long bucketUpperBound(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int magnitude = (index - LINEAR_LIMIT) / SUB_BUCKET_COUNT + LINEAR_MAGNITUDE;
+        int subBucket = (index - LINEAR_LIMIT) % SUB_BUCKET_COUNT;
+        int shift = magnitude - SUB_BUCKET_BITS;
+        long lowerBound = (long) (SUB_BUCKET_COUNT + subBucket) << shift;
+        return lowerBound + ((1L << shift) - 1);
+    }
+
+    /**
+     * An immutable copy of a histogram at one moment, answering count, mean, maximum and percentile
+     * queries. Percentiles are reported as the upper bound of their bucket, capped at the maximum.
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long totalNanos;
+        private final long maxNanos;
+
+        private Snapshot(long[] counts, long count, long totalNanos, long maxNanos) {
+            this.counts = counts;
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        public long getMeanNanos() {
+            return count == 0 ? 0 : totalNanos / count;
+        }
+
+        // Returns the value that the given percentage (0-100) of recorded values are at or below
+        public long getValueAtPercentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(Math.min(100.0, Math.max(0.0, percentile)) / 100.0 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(bucketUpperBound(i), maxNanos);
+                }
+            }
+            return maxNanos;
+        }
+
+        public long getP50Nanos() {
+            return getValueAtPercentile(50.0);
+        }
+
+        public long getP99Nanos() {
+            return getValueAtPercentile(99.0);
+        }
+
+        public long getP999Nanos() {
+            return getValueAtPercentile(99.9);
+        }
+
+        // Summarises the snapshot in milliseconds, e.g. "n=120 p50=2.1 p99=4.8 p99.9=5.0 max=5.0 ms"
+        @Override
+        public String toString() {
+            return String.format("n=%d p50=%.1f p99=%.1f p99.9=%.1f max=%.1f ms", count, getP50Nanos() / 1e6,
+                    getP99Nanos() / 1e6, getP999Nanos() / 1e6, maxNanos / 1e6);
+        }
+    }
+}
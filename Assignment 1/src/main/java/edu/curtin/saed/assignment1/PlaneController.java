@@ -14,6 +14,7 @@ import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.List;
 import java.util.concurrent.*;
+import java.nio.file.Paths;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -21,28 +22,60 @@ import java.util.logging.Logger;
 public class PlaneController {
 
     private static final Logger LOGGER = Logger.getLogger(PlaneController.class.getName());
+    private static final int PROCESS_READER_THREADS = 2; // Reading every saed_flight_requests process, without virtual threads
 
     private AircraftManager aircraftManager;
     private AirportManager airportManager;
     private boolean running;
+    private boolean requestsStarted;
     private Statistics statistics;
-    private ScheduledExecutorService scheduler;
-    private final List<FlightRequestManager> flightRequestManagers;
+    private volatile ScheduledExecutorService scheduler;            // Volatile: also read by JMX threads
+    private volatile FlightRequestManager flightRequestManager;
     private final FlightServicingManager flightServicingManager;
+    private final SimulationConfig config;
+    private volatile Runnable stateChangeListener = () -> { }; // Told of assignments and servicing completions
 
-    // Constructor 
+    // Constructor for the default scenario
     public PlaneController(AirportManager airportManager, Statistics statistics) {
+        this(airportManager, statistics, new SimulationConfig());
+    }
+
+    // Constructor for a configured scenario
+    public PlaneController(AirportManager airportManager, Statistics statistics, SimulationConfig config) {
         this.airportManager = airportManager;
         this.statistics = statistics;
-        this.scheduler = Executors.newSingleThreadScheduledExecutor(); // Scheduler for periodic tasks
-        this.flightRequestManagers = new ArrayList<>();
-        this.flightServicingManager = new FlightServicingManager(this::handleServicingRequest);
-        this.aircraftManager = new AircraftManager(airportManager, flightServicingManager, statistics);
+        this.config = config;
+        this.flightServicingManager = new FlightServicingManager(this::handleServicingRequest,
+                createServicingBackend(config));
+        this.aircraftManager = new AircraftManager(airportManager, flightServicingManager, statistics,
+                config.getFleetSize(), config.getTickRate(), config.getRequestQueueCapacity(),
+                config.getRequestOverflowPolicy());
+    }
+
+    // Creates the servicing backend selected by the configuration
+    /* default */ static ServicingBackend createServicingBackend(SimulationConfig config) {
+        switch (config.getServicingBackend()) {
+            case WORKERS:
+                return new WorkerPoolServicingBackend(config.getServicingWorkers(), config.getExecutionMode());
+            case IN_PROCESS:
+                return new InProcessServicingBackend();
+            case PROCESS:
+            default:
+                return new ProcessServicingBackend(config.getServicingThreads(), config.getExecutionMode());
+        }
     }
 
     // Starts the flight servicing manager in a separate thread
     private void startServicingProcessing() {
-        new Thread(flightServicingManager, "FlightServicingManager").start();
+        flightServicingManager.start(config.getExecutionMode());
+    }
+
+    /**
+     * Sets what to run (on the request or servicing thread involved) whenever a flight is assigned
+     * or an aircraft finishes servicing. It must be quick; the GUI passes UiUpdateCoalescer.signal.
+     */
+    public void setStateChangeListener(Runnable listener) {
+        this.stateChangeListener = listener;
     }
 
     // Sets up the simulation by initializing aircraft movement updates
@@ -54,29 +87,84 @@ public class PlaneController {
 
     // Starts the simulation including plane movement and flight request processing
     public void startSimulation() {
+        synchronized (this) {
+            if (requestsStarted) {
+                return; // Already started (e.g. by both the Start button and the event manager)
+            }
+            requestsStarted = true;
+        }
         running = true;
         aircraftManager.startPlaneMovementUpdates(); // Start aircraft movement updates
 
-        // Initialize and start flight request managers for each airport
-        for (Airport airport : airportManager.getAirports()) {
-            FlightRequestManager requestManager = new FlightRequestManager(this::handleFlightRequest, airport.getId());
-            flightRequestManagers.add(requestManager);
-            new Thread(requestManager, "FlightRequestManager-Airport-" + airport.getId()).start();
+        // Read every configured request source through one flight request manager
+        scheduler = new ScheduledThreadPoolExecutor(1); // Shared by in-process and replay sources
+        aircraftManager.getAirportMetrics().startSampling(scheduler); // For the per-airport 1 and 5 minute rates
+        flightRequestManager = new FlightRequestManager(this::handleFlightRequest, config.getRequestThreads(),
+                config.getExecutionMode(), config.getRequestOverflowPolicy());
+        flightRequestManager.setAdmissionGate(aircraftManager.getDispatcher());
+        for (FlightRequestSource source : createRequestSources(config, airportManager, scheduler)) {
+            flightRequestManager.addSource(source);
         }
+        flightRequestManager.start();
 
         startServicingProcessing(); // Start servicing processing
         LOGGER.log(Level.INFO, () -> "Simulation started.");
     }
 
+    // Creates the flight request sources selected by the configuration
+    /* default */ static List<FlightRequestSource> createRequestSources(SimulationConfig config,
+            AirportManager airportManager, ScheduledExecutorService scheduler) {
+        List<FlightRequestSource> sources = new ArrayList<>();
+        int airportCount = airportManager.getAirports().size();
+        switch (config.getRequestSource()) {
+            case REPLAY:
+                sources.add(new FileReplayFlightRequestSource(Paths.get(config.getRequestReplayFile()), airportCount,
+                        scheduler));
+                break;
+            case IN_PROCESS:
+                for (Airport airport : airportManager.getAirports()) {
+                    sources.add(new InProcessFlightRequestSource(airportCount, airport.getId(), scheduler,
+                            config.getSeed() + airport.getId()));
+                }
+                break;
+            case PROCESS:
+            default:
+                // A blocked reader per process only costs a platform thread each without virtual threads
+                ExecutionMode mode = config.getExecutionMode().effective();
+                ProcessReaderPool readerPool = mode == ExecutionMode.VIRTUAL ? null
+                        : new ProcessReaderPool(PROCESS_READER_THREADS);
+                for (Airport airport : airportManager.getAirports()) {
+                    sources.add(readerPool == null
+                            ? new ProcessFlightRequestSource(airportCount, airport.getId(), mode)
+                            : new ProcessFlightRequestSource(airportCount, airport.getId(), readerPool));
+                }
+                break;
+        }
+        return sources;
+    }
+
     // Ends the simulation by stopping all request managers and servicing processes
     public void endSimulation() {
         running = false;
-        for (FlightRequestManager requestManager : flightRequestManagers) {
-            requestManager.stop();
+        if (flightRequestManager != null) {
+            flightRequestManager.stop();
+            flightRequestManager = null;
         }
         flightServicingManager.stop();
-        scheduler.shutdownNow();
-        LOGGER.log(Level.INFO, () -> "Simulation ended.");
+        aircraftManager.shutdown(); // Stop the simulation engine
+        aircraftManager.getAirportMetrics().stopSampling();
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        synchronized (this) {
+            requestsStarted = false;
+        }
+        LOGGER.log(Level.INFO, () -> String.format(
+                "Simulation ended. %d flights assigned.%n  Request wait: %s%n  Flight time:  %s%n  Servicing:    %s",
+                aircraftManager.getDispatcher().getAssignedCount(), statistics.getRequestWaitTimes(),
+                statistics.getFlightTimes(), statistics.getServicingTimes()));
+        LOGGER.log(Level.INFO, () -> "Busiest airports:" + System.lineSeparator()
+                + aircraftManager.getAirportMetrics().describeBusiest(5));
     }
 
     // Handles a flight request by assigning an available aircraft to the flight
@@ -84,24 +172,10 @@ public class PlaneController {
         LOGGER.log(Level.INFO, () -> "Handling flight request from Airport " + request.getOriginAirportId() +
                 " to Airport " + request.getDestinationAirportId());
 
-        // Retrieve the origin airport using the airport ID from the flight request
-        Airport originAirport = airportManager.getAirportById(request.getOriginAirportId());
-        Aircraft availableAircraft = aircraftManager.getAvailableAircraftAtAirport(originAirport); // Get an available aircraft at the origin airport
-
-        if (availableAircraft != null) {
-            // Retrieve the destination airport using the destination airport ID from the flight request
-            Airport destinationAirport = airportManager.getAirportById(request.getDestinationAirportId()); 
-
-            // Start the flight for the available aircraft, moving it to the destination airport's coordinates
-            availableAircraft.startFlight(destinationAirport.getX(), destinationAirport.getY()); 
-
-            LOGGER.log(Level.INFO, () -> String.format("Aircraft %d assigned to flight from Airport %d to Airport %d",
-                    availableAircraft.getId(), request.getOriginAirportId(), request.getDestinationAirportId()));
-
-            // Update the simulation in the UI to reflect the new flight assignment
-            App.updateSimulation();
-        } else {
-            LOGGER.log(Level.WARNING, () -> "No available aircraft at origin airport " + request.getOriginAirportId());
+        // Take an idle aircraft at the origin airport, or queue the request until one is serviced
+        if (aircraftManager.handleFlightRequest(request)) {
+            // Let the UI know of the new flight assignment
+            stateChangeListener.run();
         }
     }
 
@@ -119,30 +193,70 @@ public class PlaneController {
         if (servicedAircraft != null) {
             LOGGER.log(Level.INFO, () -> String.format("Aircraft %d completed servicing at Airport %d.", planeId, airportId));
 
-            // Update the aircraft's origin airport and servicing status
-            servicedAircraft.setOriginAirport(airport);
-            servicedAircraft.setBeingServiced(false);
-
-            // Find the flight request manager for the airport and restart flight requests
-            FlightRequestManager requestManager = flightRequestManagers.stream()
-                .filter(frm -> frm.getOriginAirportId() == airportId)
-                .findFirst()
-                .orElse(null);
-            if (requestManager != null) {
-                requestManager.restartFlightRequests(airportId); // Restart flight requests for the airport
-            }
+            // Update the aircraft's origin airport and servicing status, and return it to the idle pool
+            aircraftManager.completeServicing(servicedAircraft, airport);
 
-            // Update the simulation in the UI to reflect the servicing completion
-            App.updateSimulation();
+            // Let the UI know of the servicing completion
+            stateChangeListener.run();
         } else {
             LOGGER.log(Level.WARNING, () -> String.format("Aircraft with ID %d not found for servicing.", planeId));
         }
     }
 
+    // Freezes simulated time; requests still queue and servicing carries on
+    public void pauseSimulation() {
+        aircraftManager.getSimulationEngine().pause();
+    }
+
+    public void resumeSimulation() {
+        aircraftManager.getSimulationEngine().resume();
+    }
+
+    public boolean isPaused() {
+        return aircraftManager.getSimulationEngine().isPaused();
+    }
+
+    // Changes the simulation tick rate (ticks per second), from the next tick
+    public void setTickRate(double tickRate) {
+        aircraftManager.getSimulationEngine().setTickRate(tickRate);
+        LOGGER.log(Level.INFO, () -> String.format("Tick rate changed to %.1f ticks/s", tickRate));
+    }
+
+    public AirportManager getAirportManager() {
+        return airportManager;
+    }
+
+    public AircraftManager getAircraftManager() {
+        return aircraftManager;
+    }
+
+    public FlightServicingManager getFlightServicingManager() {
+        return flightServicingManager;
+    }
+
+    // Returns the request intake, or null while the simulation is not running
+    public FlightRequestManager getFlightRequestManager() {
+        return flightRequestManager;
+    }
+
+    // Returns the scheduler shared by request sources and metric sampling, or null before the first start
+    public ScheduledExecutorService getScheduler() {
+        return scheduler;
+    }
+
+    public SimulationConfig getConfig() {
+        return config;
+    }
+
     // Returns the list of all aircraft managed by the AircraftManager
     public List<Aircraft> getAircraftList() {
         return aircraftManager.getAircraftList();
     }
+
+    // Returns the fleet state published by the most recent simulation tick
+    public FleetSnapshot getFleetSnapshot() {
+        return aircraftManager.getFleetSnapshot();
+    }
 }
 
 
@@ -0,0 +1,162 @@
+package edu.curtin.saed.assignment1;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Generates points in a width x height rectangle that are all at least minDistance apart, using
+ * Bridson's Poisson-disk sampling algorithm.
+ *
+ * A background grid with cells of side minDistance / sqrt(2) holds at most one point per cell, so
+ * checking a candidate only means looking at the 5 x 5 block of cells around it. The grid is a
+ * hash table of occupied cells only, so its size follows the number of points, not the area.
+ *
+ * Sampling stops as soon as the requested number of points has been accepted. It starts with one
+ * uniformly random candidate per requested point, so the points are spread over the whole
+ * rectangle (a sparse request is met by these alone). Each accepted point is active: it tries up
+ * to ATTEMPTS candidates spaced evenly around a circle just beyond minDistance (a variant of
+ * Bridson's annulus sampling that packs more tightly and needs no trigonometry per candidate),
+ * and is retired once none of them fit. Time and memory are thus linear in the number of points
+ * requested, however large the rectangle is.
+ */
+public class PoissonDiskSampler {
+
+    private static final int ATTEMPTS = 12; // Candidates tried around each active point
+    private static final double RADIUS_EPSILON = 1e-7;
+    private static final double STEP_COS = Math.cos(2.0 * Math.PI / ATTEMPTS);
+    private static final double STEP_SIN = Math.sin(2.0 * Math.PI / ATTEMPTS);
+    private static final long EMPTY = -1L;
+
+    private final double width;
+    private final double height;
+    private final double minDistance;
+    private final Random random;
+
+    // Background grid, hashed by cell, and the points placed so far; set up by sample()
+    private double cellSize;
+    private long gridWidth;
+    private long gridHeight;
+    private long[] cellKeys;
+    private int[] cellPoints;
+    private double[] points;
+    private int count;
+
+    // Constructor
+    public PoissonDiskSampler(double width, double height, double minDistance, long seed) {
+        if (!(width > 0.0) || !(height > 0.0) || !(minDistance > 0.0)) {
+            throw new IllegalArgumentException(String.format(
+                    "Width, height and minimum distance must be positive: %f x %f, %f", width, height, minDistance));
+        }
+        this.width = width;
+        this.height = height;
+        this.minDistance = minDistance;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Places up to maxPoints points, and returns them as a flat array of coordinates: x0, y0, x1,
+     * y1, and so on. Fewer are returned only if the rectangle fills up first.
+     */
+    public double[] sample(int maxPoints) {
+        if (maxPoints < 0) {
+            throw new IllegalArgumentException("Point count must not be negative: " + maxPoints);
+        }
+        cellSize = minDistance / Math.sqrt(2.0);
+        gridWidth = (long) Math.ceil(width / cellSize);
+        gridHeight = (long) Math.ceil(height / cellSize);
+        int tableSize = Integer.highestOneBit(Math.max(1, maxPoints) * 2 - 1) * 2; // Load factor at most 1/2
+        cellKeys = new long[tableSize];
+        Arrays.fill(cellKeys, EMPTY);
+        cellPoints = new int[tableSize];
+        points = new double[2 * maxPoints];
+        count = 0;
+
+        int[] active = new int[maxPoints];
+        int activeCount = 0;
+        for (int seedPoint = 0; seedPoint < maxPoints; seedPoint++) { // Spread the starting points out
+            if (tryPlace(random.nextDouble() * width, random.nextDouble() * height)) {
+                active[activeCount++] = count - 1;
+            }
+        }
+
+        double radius = minDistance * (1.0 + RADIUS_EPSILON);
+        while (activeCount > 0 && count < maxPoints) {
+            int activeIndex = random.nextInt(activeCount);
+            int parent = active[activeIndex];
+            double parentX = points[2 * parent];
+            double parentY = points[2 * parent + 1];
+            boolean placed = false;
+
+            // Candidates sit evenly around a circle just outside minDistance, starting at a random
+            // angle; stepping the direction by a fixed rotation avoids a cos/sin per candidate
+            double angle = random.nextDouble() * 2.0 * Math.PI;
+            double dirX = Math.cos(angle);
+            double dirY = Math.sin(angle);
+            for (int attempt = 0; attempt < ATTEMPTS && !placed; attempt++) {
+                double x = parentX + radius * dirX;
+                double y = parentY + radius * dirY;
+                double nextDirX = dirX * STEP_COS - dirY * STEP_SIN;
+                dirY = dirX * STEP_SIN + dirY * STEP_COS;
+                dirX = nextDirX;
+                if (tryPlace(x, y)) {
+                    active[activeCount++] = count - 1;
+                    placed = true;
+                }
+            }
+
+            if (!placed) {
+                active[activeIndex] = active[--activeCount]; // Retire the point
+            }
+        }
+        double[] result = Arrays.copyOf(points, 2 * count);
+        cellKeys = null; // Don't hold on to the working storage
+        cellPoints = null;
+        points = null;
+        return result;
+    }
+
+    // Adds the point if it lies in the rectangle and is far enough from every other point
+    private boolean tryPlace(double x, double y) {
+        if (x < 0.0 || y < 0.0 || x >= width || y >= height) {
+            return false;
+        }
+        long cellX = Math.min(gridWidth - 1, (long) (x / cellSize));
+        long cellY = Math.min(gridHeight - 1, (long) (y / cellSize));
+        double minDistanceSq = minDistance * minDistance;
+        for (long cy = Math.max(0, cellY - 2); cy <= Math.min(gridHeight - 1, cellY + 2); cy++) {
+            for (long cx = Math.max(0, cellX - 2); cx <= Math.min(gridWidth - 1, cellX + 2); cx++) {
+                int other = pointInCell(cy * gridWidth + cx);
+                if (other >= 0) {
+                    double dx = points[2 * other] - x;
+                    double dy = points[2 * other + 1] - y;
+                    if (dx * dx + dy * dy < minDistanceSq) {
+                        return false;
+                    }
+                }
+            }
+        }
+        points[2 * count] = x;
+        points[2 * count + 1] = y;
+        int index = slotOf(cellY * gridWidth + cellX);
+        cellKeys[index] = cellY * gridWidth + cellX;
+        cellPoints[index] = count;
+        count++;
+        return true;
+    }
+
+    // Returns the index of the point in the given cell, or -1 if it is empty
+    private int pointInCell(long cell) {
+        int index = slotOf(cell);
+        return cellKeys[index] == cell ? cellPoints[index] : -1;
+    }
+
+    // Returns the table slot holding the given cell, or the empty slot where it would go (linear probing)
+    private int slotOf(long cell) {
+        int mask = cellKeys.length - 1;
+        int index = (int) (cell * 0x9E3779B97F4A7C15L >>> 40) & mask;
+        while (cellKeys[index] != EMPTY && cellKeys[index] != cell) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+}
@@ -0,0 +1,241 @@
+package edu.curtin.saed.assignment1;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Reads flight requests for one airport from an external saed_flight_requests process, which
+ * prints one destination airport id per line.
+ *
+ * With virtual threads, a reader thread of its own blocks on the process's output and puts each
+ * request as soon as its line arrives; a blocked reader holds no platform thread. Otherwise the
+ * source is read by a ProcessReaderPool, whose few threads call pump() to take only what the pipe
+ * already holds. A request the sink has no room for is kept and offered again on the next pump,
+ * and the pipe is left unread meanwhile, so the process itself is held back once the pipe fills.
+ */
+public class ProcessFlightRequestSource implements FlightRequestSource {
+
+    private static final Logger LOGGER = Logger.getLogger(ProcessFlightRequestSource.class.getName());
+
+    private final int airportCount;
+    private final int originAirportId;
+    private final ExecutionMode executionMode;
+    private final ProcessReaderPool readerPool;
+    private volatile boolean running;
+    private Process process;
+    private Thread readerThread;
+
+    // Read by pump(), on one pool thread at a time
+    private final byte[] readBuffer = new byte[512];
+    private final StringBuilder partialLine = new StringBuilder();
+    private FlightRequestManager.RequestSink poolSink;
+    private Process poolProcess;
+    private InputStream poolInput;
+    private FlightRequest heldRequest; // Read, but not yet taken by the sink
+
+    // Constructor; the process is read on a thread of its own, of the given kind
+    public ProcessFlightRequestSource(int airportCount, int originAirportId, ExecutionMode executionMode) {
+        this(airportCount, originAirportId, executionMode, null);
+    }
+
+    // Constructor; the process is read by the given pool
+    public ProcessFlightRequestSource(int airportCount, int originAirportId, ProcessReaderPool readerPool) {
+        this(airportCount, originAirportId, ExecutionMode.PLATFORM, readerPool);
+    }
+
+    private ProcessFlightRequestSource(int airportCount, int originAirportId, ExecutionMode executionMode,
+            ProcessReaderPool readerPool) {
+        this.airportCount = airportCount;
+        this.originAirportId = originAirportId;
+        this.executionMode = executionMode;
+        this.readerPool = readerPool;
+    }
+
+    @Override
+    public void start(FlightRequestManager.RequestSink sink) throws IOException {
+        synchronized (this) {
+            String command = getCommand("saed_flight_requests"); // Get the command to execute based on the OS
+            process = new ProcessBuilder(command, String.valueOf(airportCount), String.valueOf(originAirportId)).start();
+            running = true;
+            if (readerPool == null) {
+                BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(process.getInputStream(), StandardCharsets.US_ASCII));
+                readerThread = executionMode.startThread("FlightRequestReader-" + originAirportId,
+                        () -> readRequests(reader, sink));
+                return;
+            }
+            poolSink = sink;
+            poolProcess = process;
+            poolInput = process.getInputStream();
+        }
+        readerPool.register(this); // After the fields it reads are set, as the pool thread starts at once
+    }
+
+    // Reader loop: puts a request for each line, until the process ends or the source is stopped
+    private void readRequests(BufferedReader reader, FlightRequestManager.RequestSink sink) {
+        try {
+            String line = reader.readLine();
+            while (line != null && running) {
+                FlightRequest request = parseLine(line);
+                if (request != null) {
+                    sink.put(request); // Holds this thread back until the request has room
+                }
+                line = reader.readLine();
+            }
+            if (running) {
+                LOGGER.info(() -> String.format("Flight request process for Airport %d has stopped.", originAirportId));
+            }
+        } catch (IOException e) {
+            if (running) {
+                LOGGER.log(Level.SEVERE, () -> String.format("Error reading %s: %s", describe(), e.getMessage()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Stopped while waiting for room
+        } finally {
+            running = false;
+        }
+    }
+
+    /**
+     * Passes on whatever requests can be read without blocking, for a ProcessReaderPool thread.
+     * Returns true if anything was read or passed on. Stops at the first request the sink has no
+     * room for, keeping it for the next call and leaving the rest in the pipe.
+     */
+    /* default */ boolean pump() {
+        if (!running) {
+            return false;
+        }
+        boolean progress = false;
+        if (heldRequest != null) {
+            if (!poolSink.offer(heldRequest)) {
+                return false;
+            }
+            heldRequest = null;
+            progress = true;
+        }
+        try {
+            while (passLines()) {
+                int available = poolInput.available();
+                int count = 0;
+                if (available > 0) {
+                    count = poolInput.read(readBuffer, 0, Math.min(available, readBuffer.length));
+                } else if (!poolProcess.isAlive()) {
+                    count = poolInput.read(readBuffer); // Returns at once, as nothing writes to the pipe any more
+                }
+                if (count < 0) {
+                    if (running) {
+                        LOGGER.info(() -> String.format("Flight request process for Airport %d has stopped.", originAirportId));
+                    }
+                    running = false;
+                    return progress;
+                }
+                if (count == 0) {
+                    return progress;
+                }
+                for (int i = 0; i < count; i++) {
+                    partialLine.append((char) readBuffer[i]); // US-ASCII
+                }
+                progress = true;
+            }
+        } catch (IOException e) {
+            if (running) {
+                LOGGER.log(Level.SEVERE, () -> String.format("Error reading %s: %s", describe(), e.getMessage()));
+            }
+            running = false;
+        }
+        return progress;
+    }
+
+    // Offers each complete line read so far; returns false if one was held back for want of room
+    private boolean passLines() {
+        int end = partialLine.indexOf("\n");
+        while (end >= 0) {
+            FlightRequest request = parseLine(partialLine.substring(0, end));
+            partialLine.delete(0, end + 1);
+            if (request != null && !poolSink.offer(request)) {
+                heldRequest = request;
+                return false;
+            }
+            end = partialLine.indexOf("\n");
+        }
+        return true;
+    }
+
+    // Returns true until the process has ended or the source has been stopped
+    /* default */ boolean isReading() {
+        return running;
+    }
+
+    // Parses one line of output into a request, or returns null for blank, non-numeric or out-of-range lines
+    public FlightRequest parseLine(String line) {
+        String trimmed = line.trim();
+        if (trimmed.isEmpty()) {
+            return null; // Skip empty lines
+        }
+        try {
+            int destinationAirportId = Integer.parseInt(trimmed); // Parse the destination airport ID from the line
+            if (destinationAirportId < 0 || destinationAirportId >= airportCount) {
+                LOGGER.warning(() -> String.format("%s named unknown Airport %d; skipped", describe(), destinationAirportId));
+                return null;
+            }
+            return new FlightRequest(0, 0, 0, originAirportId, destinationAirportId);
+        } catch (NumberFormatException e) {
+            return null; // Skip lines that do not contain valid integers
+        }
+    }
+
+    @Override
+    public void stop() {
+        Process toStop;
+        synchronized (this) {
+            running = false;
+            toStop = process;
+            process = null;
+            if (readerThread != null) {
+                readerThread.interrupt(); // In case it is waiting for room
+                readerThread = null;
+            }
+        }
+        if (toStop == null) {
+            return;
+        }
+        if (toStop.isAlive()) { // Ending the process also ends the reader's blocked read
+            toStop.destroy(); // Destroy the process if it's still alive
+            try {
+                if (!toStop.waitFor(30, TimeUnit.SECONDS)) {
+                    toStop.destroyForcibly(); // Forcefully destroy if not terminated in time
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt(); // Restore interrupted status
+                toStop.destroyForcibly(); // Forcefully destroy on interruption
+            }
+        }
+        try {
+            toStop.getOutputStream().close(); // Close output stream
+            toStop.getInputStream().close();  // Close input stream
+        } catch (IOException e) {
+            LOGGER.warning(() -> "Error closing process streams: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public String describe() {
+        return "saed_flight_requests process for Airport " + originAirportId;
+    }
+
+    // Determines the command to execute based on the operating system
+    private static String getCommand(String baseName) {
+        String os = System.getProperty("os.name").toLowerCase();
+        if (os.contains("win")) {
+            return baseName + ".bat"; // For Windows, use .bat file
+        } else {
+            return baseName; // For other OS, use the base name directly
+        }
+    }
+}
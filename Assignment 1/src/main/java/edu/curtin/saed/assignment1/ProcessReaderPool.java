@@ -0,0 +1,100 @@
+package edu.curtin.saed.assignment1;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Reads many saed_flight_requests processes on a fixed number of platform threads, so that the
+ * thread count stays flat however many airports there are (one blocked reader per process is only
+ * affordable with virtual threads).
+ *
+ * Each source is given to one lane, the lane with the fewest sources. A lane's thread sweeps its
+ * sources, reading only what each pipe already has (see ProcessFlightRequestSource.pump), so no
+ * read blocks. When a sweep finds nothing, the thread parks for 1 ms, doubling up to 20 ms while
+ * the pipes stay quiet, which bounds the delay a request sees to about one park. A lane's thread
+ * starts with its first source and ends once its last source has stopped.
+ */
+public class ProcessReaderPool {
+
+    private static final Logger LOGGER = Logger.getLogger(ProcessReaderPool.class.getName());
+    private static final long MIN_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private final Lane[] lanes;
+
+    // One reader thread and the sources it sweeps
+    private static final class Lane {
+        private final List<ProcessFlightRequestSource> sources = new CopyOnWriteArrayList<>();
+        private Thread thread; // Guarded by the pool; null while the lane has nothing to read
+    }
+
+    // Constructor; laneCount is the most reader threads the pool will run at once
+    public ProcessReaderPool(int laneCount) {
+        if (laneCount < 1) {
+            throw new IllegalArgumentException("A reader pool needs at least one thread: " + laneCount);
+        }
+        this.lanes = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new Lane();
+        }
+    }
+
+    // Starts reading the given source on the least loaded lane
+    public void register(ProcessFlightRequestSource source) {
+        synchronized (this) {
+            Lane lane = lanes[0];
+            int laneIndex = 0;
+            for (int i = 1; i < lanes.length; i++) {
+                if (lanes[i].sources.size() < lane.sources.size()) {
+                    lane = lanes[i];
+                    laneIndex = i;
+                }
+            }
+            lane.sources.add(source);
+            if (lane.thread == null) {
+                Lane started = lane;
+                lane.thread = ExecutionMode.PLATFORM.startThread("FlightRequestReader-" + laneIndex,
+                        () -> readLane(started));
+            }
+        }
+    }
+
+    // Lane loop: sweeps the lane's sources until none is left reading
+    private void readLane(Lane lane) {
+        long parkNanos = MIN_PARK_NANOS;
+        while (true) {
+            boolean progress = false;
+            for (ProcessFlightRequestSource source : lane.sources) {
+                try {
+                    progress |= source.pump();
+                } catch (RuntimeException e) { // NOPMD - one faulty source must not stop the others on its lane
+                    LOGGER.log(Level.SEVERE, e, () -> "Error reading " + source.describe());
+                    source.stop();
+                }
+                if (!source.isReading()) {
+                    lane.sources.remove(source);
+                }
+            }
+            synchronized (this) {
+                if (lane.sources.isEmpty()) {
+                    lane.thread = null; // Checked under the pool's lock, so register() starts a new thread if needed
+                    return;
+                }
+            }
+            if (progress) {
+                parkNanos = MIN_PARK_NANOS;
+            } else {
+                LockSupport.parkNanos(this, parkNanos);
+                parkNanos = Math.min(parkNanos * 2, MAX_PARK_NANOS);
+            }
+        }
+    }
+
+    public int getLaneCount() {
+        return lanes.length;
+    }
+}
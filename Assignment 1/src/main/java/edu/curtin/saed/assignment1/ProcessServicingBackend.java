@@ -0,0 +1,128 @@
+package edu.curtin.saed.assignment1;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Services each landed aircraft by running a fresh saed_plane_service process and waiting for it
+ * on a pool thread. Every service pays for a JVM start-up and holds a thread for its duration.
+ *
+ * stop() is called from the GUI thread, so it does not wait for services to finish: it kills the
+ * running processes and gives their threads a moment to notice. Abandoned services are reported
+ * as failed, which the caller treats as unfinished while it is stopping.
+ */
+public class ProcessServicingBackend implements ServicingBackend {
+
+    private static final Logger LOGGER = Logger.getLogger(ProcessServicingBackend.class.getName());
+    private static final long STOP_TIMEOUT_MILLIS = 500;
+
+    private final int servicingThreads;
+    private final ExecutionMode executionMode;
+    private volatile ExecutorService executorService; // Replaced by start() after a stop()
+    private final Set<Process> processes = ConcurrentHashMap.newKeySet(); // Running services, for stop()
+
+    // Constructor with a bounded pool; 0 threads means an unbounded (cached) pool
+    public ProcessServicingBackend(int servicingThreads) {
+        this(servicingThreads, ExecutionMode.PLATFORM);
+    }
+
+    // Constructor that waits on the processes with the given kind of thread
+    public ProcessServicingBackend(int servicingThreads, ExecutionMode executionMode) {
+        this.servicingThreads = servicingThreads;
+        this.executionMode = executionMode.effective();
+        this.executorService = this.executionMode.newExecutor("PlaneService", servicingThreads);
+    }
+
+    @Override
+    public void start() {
+        // Nothing else to prepare: each service starts its own process
+        synchronized (this) {
+            if (executorService.isShutdown()) { // Restarted after stop()
+                executorService = executionMode.newExecutor("PlaneService", servicingThreads);
+            }
+        }
+    }
+
+    @Override
+    public void service(int airportId, int aircraftId, ServicingCallback callback) {
+        try {
+            executorService.submit(() -> callback.onServiced(airportId, aircraftId, runProcess(airportId, aircraftId)));
+        } catch (RejectedExecutionException e) {
+            LOGGER.log(Level.WARNING, () -> "Error submitting servicing task for Aircraft " + aircraftId
+                    + " at Airport " + airportId + ": " + e.getMessage());
+        }
+    }
+
+    // Runs one saed_plane_service process to completion and reports whether it succeeded
+    private boolean runProcess(int airportId, int aircraftId) {
+        Process proc = null;
+        try {
+            // Start the process to service the aircraft
+            proc = new ProcessBuilder(getCommand("saed_plane_service"),
+                    String.valueOf(airportId), String.valueOf(aircraftId)).start();
+            processes.add(proc);
+
+            // Handle the process's input stream
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(proc.getInputStream(), StandardCharsets.UTF_8))) {
+                String servicingOutput = null;
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    servicingOutput = line; // Read the output from the process
+                }
+                int exitCode = proc.waitFor(); // Wait for the process to complete
+                return exitCode == 0 && servicingOutput != null;
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, () -> "Error during servicing Aircraft " + aircraftId + " at Airport " + airportId
+                    + ": " + e.getMessage());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Restore interrupted status
+            return false;
+        } finally {
+            if (proc != null) {
+                processes.remove(proc);
+                proc.destroy(); // process is destroyed
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+        ExecutorService current = executorService; // The pool being stopped, even if start() replaces it
+        if (!current.isShutdown()) {
+            current.shutdownNow(); // Interrupt the threads waiting on processes
+            for (Process process : processes) {
+                process.destroyForcibly(); // Ends the output the threads are reading
+            }
+            try {
+                if (!current.awaitTermination(STOP_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    LOGGER.fine(() -> "Servicing threads still finishing after stop");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt(); // Restore interrupted status
+            }
+        }
+    }
+
+    @Override
+    public String describe() {
+        return "saed_plane_service process per landing";
+    }
+
+    // Determines the command to execute based on the operating system
+    private static String getCommand(String baseName) {
+        String os = System.getProperty("os.name").toLowerCase();
+        return os.contains("win") ? baseName + ".bat" : baseName; // Use .bat file for Windows, otherwise use base name
+    }
+}
@@ -0,0 +1,279 @@
+package edu.curtin.saed.assignment1;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Serves the simulation's counters, gauges and latency histograms in the Prometheus text format
+ * at http://127.0.0.1:port/metrics, using the JDK's built-in HTTP server.
+ *
+ * Scrapes are handled one at a time on the exporter's own thread. Every value is read from
+ * atomics, adders or volatile fields, so a scrape never blocks a simulation thread, and the text is
+ * rendered into a StringBuilder and byte buffer that are reused from one scrape to the next.
+ * Histograms are exported with fixed bucket bounds, read straight from the live LatencyHistogram.
+ *
+ * Fleet-wide totals are always exported. Per-airport series would add six per airport to every
+ * scrape, so they are only exported for the airportLimit busiest airports (as ranked by
+ * AirportMetrics by one minute request rate), or not at all when it is 0.
+ */
+public class PrometheusExporter {
+
+    private static final Logger LOGGER = Logger.getLogger(PrometheusExporter.class.getName());
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final int DEFAULT_AIRPORT_LIMIT = 10; // As SimulationConfig's metrics.airports
+
+    // Histogram bucket bounds, from 1 ms to 1 minute, plus +Inf
+    private static final long[] BOUNDS_NANOS = {
+        TimeUnit.MILLISECONDS.toNanos(1), TimeUnit.MILLISECONDS.toNanos(5), TimeUnit.MILLISECONDS.toNanos(10),
+        TimeUnit.MILLISECONDS.toNanos(50), TimeUnit.MILLISECONDS.toNanos(100), TimeUnit.MILLISECONDS.toNanos(250),
+        TimeUnit.MILLISECONDS.toNanos(500), TimeUnit.SECONDS.toNanos(1), TimeUnit.MILLISECONDS.toNanos(2500),
+        TimeUnit.SECONDS.toNanos(5), TimeUnit.SECONDS.toNanos(10), TimeUnit.SECONDS.toNanos(30),
+        TimeUnit.SECONDS.toNanos(60), Long.MAX_VALUE
+    };
+    private static final String[] BOUND_LABELS = {
+        "0.001", "0.005", "0.01", "0.05", "0.1", "0.25", "0.5", "1", "2.5", "5", "10", "30", "60", "+Inf"
+    };
+
+    private final PlaneController controller;
+    private final Statistics statistics;
+    private final int port;
+    private final Map<String, ExecutorMXBean> executors;
+    private final int[] airportIds;
+    private final int airportLimit;
+    private int[] scrapeAirportIds; // The airports given series in the current scrape
+
+    // Reused by every scrape; only touched by the single HTTP thread
+    private final StringBuilder text = new StringBuilder(16 * 1024);
+    private final long[] cumulative = new long[BOUNDS_NANOS.length];
+    private byte[] body = new byte[16 * 1024];
+
+    private HttpServer server;
+    private ExecutorService httpExecutor;
+
+    // Constructor; nothing is served until start()
+    public PrometheusExporter(PlaneController controller, Statistics statistics, int port) {
+        this(controller, statistics, port, DEFAULT_AIRPORT_LIMIT);
+    }
+
+    // Constructor that exports per-airport series for only the given number of busiest airports
+    public PrometheusExporter(PlaneController controller, Statistics statistics, int port, int airportLimit) {
+        this.controller = controller;
+        this.statistics = statistics;
+        this.port = port;
+        this.airportLimit = airportLimit;
+        this.executors = SimulationMBeans.executorBeans(controller);
+        List<Airport> airports = controller.getAirportManager().getAirports();
+        this.airportIds = new int[airports.size()];
+        for (int i = 0; i < airportIds.length; i++) {
+            airportIds[i] = airports.get(i).getId();
+        }
+    }
+
+    // Starts serving /metrics on the loopback interface
+    public void start() throws IOException {
+        synchronized (this) {
+            if (server != null) {
+                return;
+            }
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+            server.createContext("/metrics", this::handle);
+            httpExecutor = Executors.newSingleThreadExecutor(ExecutionMode.PLATFORM.threadFactory("PrometheusExporter"));
+            server.setExecutor(httpExecutor);
+            server.start();
+        }
+        LOGGER.info(() -> "Serving Prometheus metrics at http://" + getAddress().getHostString() + ":"
+                + getAddress().getPort() + "/metrics");
+    }
+
+    // Stops serving, letting a scrape in progress finish
+    public void stop() {
+        synchronized (this) {
+            if (server == null) {
+                return;
+            }
+            server.stop(1);
+            httpExecutor.shutdownNow();
+            server = null;
+            httpExecutor = null;
+        }
+    }
+
+    // Returns the address being served, e.g. to find the port chosen when port 0 was asked for
+    public InetSocketAddress getAddress() {
+        synchronized (this) {
+            return server == null ? null : server.getAddress();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod()) && !"HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            render();
+            int length = encode();
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body, 0, length);
+            }
+        } catch (RuntimeException e) { // NOPMD - a failed scrape must not kill the exporter thread
+            LOGGER.log(Level.WARNING, e, () -> "Could not render metrics");
+        }
+    }
+
+    // Copies the (ASCII) exposition into the reused byte buffer, growing it if needed
+    private int encode() {
+        int length = text.length();
+        if (body.length < length) {
+            body = new byte[Math.max(length, body.length * 2)];
+        }
+        for (int i = 0; i < length; i++) {
+            body[i] = (byte) text.charAt(i);
+        }
+        return length;
+    }
+
+    private void render() {
+        text.setLength(0);
+
+        gauge("atc_aircraft_in_flight", "Aircraft currently flying", statistics.getInFlightCount());
+        gauge("atc_aircraft_servicing", "Aircraft landed and waiting for or undergoing servicing",
+                statistics.getServicingCount());
+        counter("atc_trips_completed_total", "Flights completed", statistics.getCompletedTripsCount());
+
+        histogram("atc_request_wait_seconds", "Time from a flight request's creation to its dispatch",
+                statistics.getRequestWaitHistogram());
+        histogram("atc_flight_time_seconds", "Time from takeoff to landing", statistics.getFlightTimeHistogram());
+        histogram("atc_servicing_time_seconds", "Time from landing to the end of servicing",
+                statistics.getServicingTimeHistogram());
+
+        AircraftManager aircraftManager = controller.getAircraftManager();
+        FlightRequestManager intake = controller.getFlightRequestManager();
+        gauge("atc_intake_queue_size", "Requests read from the sources and not yet dispatched",
+                intake == null ? 0 : intake.getQueuedRequestCount());
+        counter("atc_intake_dropped_total", "Requests dropped by the full intake queue",
+                intake == null ? 0 : intake.getDroppedRequestCount());
+        gauge("atc_requests_waiting", "Requests waiting for an aircraft", aircraftManager.getQueuedRequestCount());
+        counter("atc_requests_dropped_total", "Waiting requests dropped or refused by the overflow policy",
+                aircraftManager.getDroppedRequestCount());
+
+        renderAirports(aircraftManager.getAirportMetrics());
+        renderExecutors();
+        renderEngine(aircraftManager.getSimulationEngine());
+    }
+
+    private void renderAirports(AirportMetrics metrics) {
+        if (airportLimit <= 0) {
+            return;
+        }
+        // Every airport fits: no ranking needed, and the series stay the same from scrape to scrape
+        scrapeAirportIds = airportLimit >= airportIds.length ? airportIds : metrics.getBusiest(airportLimit);
+        airportCounter(metrics, "atc_airport_requests_received_total", "Flight requests received, by origin airport",
+                AirportMetrics.Counter.REQUESTS_RECEIVED);
+        airportCounter(metrics, "atc_airport_requests_dispatched_total", "Flight requests dispatched, by origin airport",
+                AirportMetrics.Counter.REQUESTS_DISPATCHED);
+        airportCounter(metrics, "atc_airport_landings_total", "Landings, by airport", AirportMetrics.Counter.LANDINGS);
+        airportCounter(metrics, "atc_airport_servicing_completed_total", "Services completed, by airport",
+                AirportMetrics.Counter.SERVICING_COMPLETED);
+
+        header("atc_airport_queue_depth", "Requests waiting for an aircraft, by airport", "gauge");
+        for (int airportId : scrapeAirportIds) {
+            airportSample("atc_airport_queue_depth", airportId).append(metrics.getQueueDepth(airportId)).append('\n');
+        }
+        header("atc_airport_servicing_in_progress", "Aircraft landed and not yet serviced, by airport", "gauge");
+        for (int airportId : scrapeAirportIds) {
+            airportSample("atc_airport_servicing_in_progress", airportId)
+                    .append(metrics.getServicingInProgress(airportId)).append('\n');
+        }
+    }
+
+    private void airportCounter(AirportMetrics metrics, String name, String help, AirportMetrics.Counter counter) {
+        header(name, help, "counter");
+        for (int airportId : scrapeAirportIds) {
+            airportSample(name, airportId).append(metrics.getCount(counter, airportId)).append('\n');
+        }
+    }
+
+    private StringBuilder airportSample(String name, int airportId) {
+        return text.append(name).append("{airport=\"").append(airportId).append("\"} ");
+    }
+
+    private void renderExecutors() {
+        header("atc_executor_active", "Tasks running, by executor", "gauge");
+        for (Map.Entry<String, ExecutorMXBean> executor : executors.entrySet()) {
+            executorSample("atc_executor_active", executor.getKey()).append(executor.getValue().getActiveCount()).append('\n');
+        }
+        header("atc_executor_queued", "Tasks waiting to run, by executor", "gauge");
+        for (Map.Entry<String, ExecutorMXBean> executor : executors.entrySet()) {
+            executorSample("atc_executor_queued", executor.getKey()).append(executor.getValue().getQueuedTaskCount()).append('\n');
+        }
+        header("atc_executor_completed_total", "Tasks completed, by executor", "counter");
+        for (Map.Entry<String, ExecutorMXBean> executor : executors.entrySet()) {
+            executorSample("atc_executor_completed_total", executor.getKey())
+                    .append(Math.max(0, executor.getValue().getCompletedTaskCount())).append('\n');
+        }
+    }
+
+    private StringBuilder executorSample(String name, String executor) {
+        return text.append(name).append("{executor=\"").append(executor).append("\"} ");
+    }
+
+    private void renderEngine(SimulationEngine engine) {
+        gauge("atc_tick_rate", "Simulation ticks per second", engine.getTickRate());
+        counter("atc_ticks_total", "Simulation ticks run", engine.getTickCount());
+        counter("atc_ticks_skipped_total", "Simulation ticks skipped after falling behind", engine.getSkippedTicks());
+        gauge("atc_tick_duration_seconds", "Duration of the last simulation tick", engine.getLastTickDurationNanos() / 1e9);
+        gauge("atc_tick_duration_average_seconds", "Mean simulation tick duration",
+                engine.getAverageTickDurationNanos() / 1e9);
+        gauge("atc_tick_duration_max_seconds", "Longest simulation tick", engine.getMaxTickDurationNanos() / 1e9);
+        gauge("atc_tick_lateness_max_seconds", "Latest start of a simulation tick", engine.getMaxTickLatenessNanos() / 1e9);
+        gauge("atc_paused", "1 while the simulation is paused", engine.isPaused() ? 1 : 0);
+    }
+
+    private void histogram(String name, String help, LatencyHistogram histogram) {
+        header(name, help, "histogram");
+        long count = histogram.cumulativeCounts(BOUNDS_NANOS, cumulative);
+        for (int i = 0; i < BOUNDS_NANOS.length; i++) {
+            text.append(name).append("_bucket{le=\"").append(BOUND_LABELS[i]).append("\"} ").append(cumulative[i]).append('\n');
+        }
+        text.append(name).append("_sum ").append(histogram.getTotalNanos() / 1e9).append('\n');
+        text.append(name).append("_count ").append(count).append('\n');
+    }
+
+    private void gauge(String name, String help, long value) {
+        header(name, help, "gauge");
+        text.append(name).append(' ').append(value).append('\n');
+    }
+
+    private void gauge(String name, String help, double value) {
+        header(name, help, "gauge");
+        text.append(name).append(' ').append(value).append('\n');
+    }
+
+    private void counter(String name, String help, long value) {
+        header(name, help, "counter");
+        text.append(name).append(' ').append(value).append('\n');
+    }
+
+    private void header(String name, String help, String type) {
+        text.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        text.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+}
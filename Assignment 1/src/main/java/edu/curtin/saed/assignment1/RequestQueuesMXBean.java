@@ -0,0 +1,29 @@
+package edu.curtin.saed.assignment1;
+
+import java.util.Map;
+
+/**
+ * Management interface for the flight request queues, registered as
+ * edu.curtin.saed.assignment1:type=RequestQueues: the shared intake queue, and the bounded queue
+ * of requests waiting for an aircraft at each airport.
+ */
+public interface RequestQueuesMXBean {
+
+    // Requests read from the sources and not yet dispatched (0 while the simulation is stopped)
+    int getIntakeQueueSize();
+
+    long getIntakeDroppedCount();
+
+    // Requests waiting for an aircraft, across all airports
+    long getWaitingRequestCount();
+
+    // Waiting requests discarded or refused by the overflow policy, across all airports
+    long getDroppedRequestCount();
+
+    int getQueueCapacity();
+
+    String getOverflowPolicy();
+
+    // Waiting requests by airport id
+    Map<Integer, Long> getQueueDepthByAirport();
+}
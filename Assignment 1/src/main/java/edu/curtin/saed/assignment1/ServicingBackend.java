@@ -0,0 +1,31 @@
+package edu.curtin.saed.assignment1;
+
+import java.io.IOException;
+
+/**
+ * Something that services landed aircraft. Each call to service() returns straight away, and the
+ * callback is invoked later (from whatever thread the backend uses) once servicing has finished.
+ *
+ * Implementations: ProcessServicingBackend (one saed_plane_service process per landing),
+ * WorkerPoolServicingBackend (a fixed pool of long-lived worker processes) and
+ * InProcessServicingBackend (an equivalent of PlaneService running inside this JVM).
+ */
+public interface ServicingBackend {
+
+    // Callback invoked once per service() call
+    interface ServicingCallback {
+        void onServiced(int airportId, int aircraftId, boolean success);
+    }
+
+    // Prepares the backend (e.g. launches and warms up worker processes) before the first request
+    void start() throws IOException;
+
+    // Begins servicing the given aircraft at the given airport
+    void service(int airportId, int aircraftId, ServicingCallback callback);
+
+    // Stops the backend; servicing still in progress may be abandoned. Safe to call more than once
+    void stop();
+
+    // Returns a short description for log messages
+    String describe();
+}
@@ -0,0 +1,72 @@
+package edu.curtin.saed.assignment1;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Entry point of a long-lived servicing worker process, launched by WorkerPoolServicingBackend.
+ * The worker talks a line-based protocol over its standard input and output:
+ *
+ *   worker -> parent:  READY                                   (once, when it can take requests)
+ *   parent -> worker:  SERVICE &lt;request id&gt; &lt;airport id&gt; &lt;aircraft id&gt;
+ *   worker -> parent:  DONE &lt;request id&gt; &lt;service millis&gt;   or   FAIL &lt;request id&gt; &lt;reason&gt;
+ *
+ * Any number of requests may be outstanding; replies come back in completion order, matched up
+ * by request id. The worker exits when its standard input is closed.
+ */
+public final class ServicingWorker {
+
+    public static final String READY = "READY";
+    public static final String SERVICE = "SERVICE";
+    public static final String DONE = "DONE";
+    public static final String FAIL = "FAIL";
+
+    private ServicingWorker() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        PrintWriter out = new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), true);
+        InProcessServicingBackend backend = new InProcessServicingBackend();
+        backend.start();
+        reply(out, READY);
+
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                handle(line.trim().split("\\s+"), backend, out);
+            }
+        } finally {
+            backend.stop();
+        }
+    }
+
+    private static void handle(String[] parts, InProcessServicingBackend backend, PrintWriter out) {
+        if (parts.length != 4 || !SERVICE.equals(parts[0])) {
+            reply(out, FAIL + " -1 malformed-request");
+            return;
+        }
+        String requestId = parts[1];
+        try {
+            int airportId = Integer.parseInt(parts[2]);
+            int aircraftId = Integer.parseInt(parts[3]);
+            long started = System.nanoTime();
+            backend.service(airportId, aircraftId, (airport, aircraft, success) -> {
+                long millis = (System.nanoTime() - started) / 1_000_000;
+                reply(out, success ? DONE + " " + requestId + " " + millis : FAIL + " " + requestId + " servicing-failed");
+            });
+        } catch (NumberFormatException e) {
+            reply(out, FAIL + " " + requestId + " malformed-ids");
+        }
+    }
+
+    // Writes one reply line; replies come from the scheduler thread as well as the main thread
+    private static void reply(PrintWriter out, String line) {
+        synchronized (out) {
+            out.println(line);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package edu.curtin.saed.assignment1;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Headless benchmark that runs the simulation engine at a series of fleet sizes and reports, for
+ * each one, completed trips per second, heap used per aircraft and tick timings.
+ *
+ * Demand is a closed loop: every aircraft is dispatched at the start, servicing completes at once
+ * on landing, and the aircraft is immediately sent on a short hop to a nearby airport. This keeps
+ * the whole fleet busy, so the figures reflect the engine rather than the request generators or
+ * the external servicing processes.
+ *
+ * Usage (any SimulationConfig option may also be given, and applies to every scale point):
+ *
+ *   SimulationBenchmark --scales=10,1000,100000,1000000 --warmup=3 --duration=10
+ *
+ * Unless --airports / --world.width / --world.height are given, each point uses one airport per
+ * ten aircraft (between 10 and 100,000) in a square world just big enough to hold them.
+ */
+public final class SimulationBenchmark {
+
+    private static final String KEY_SCALES = "scales";
+    private static final String KEY_WARMUP = "warmup";
+    private static final String KEY_DURATION = "duration";
+    private static final double AIRPORTS_PER_UNIT_AREA = 0.5;
+    private static final double HOP_RADIUS = 3.0; // Maximum length of a benchmark flight
+
+    // Held in a field, since the logging framework only keeps weak references to loggers
+    private static final Logger PACKAGE_LOGGER = Logger.getLogger(SimulationBenchmark.class.getPackageName());
+
+    private SimulationBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        PACKAGE_LOGGER.setLevel(Level.WARNING); // Per-flight INFO logging would swamp the measurements
+
+        Properties properties = SimulationConfig.parseArgs(args);
+        String scales = (String) properties.remove(KEY_SCALES);
+        String warmup = (String) properties.remove(KEY_WARMUP);
+        String duration = (String) properties.remove(KEY_DURATION);
+        long warmupSeconds = warmup == null ? 3 : Long.parseLong(warmup);
+        long durationSeconds = duration == null ? 10 : Long.parseLong(duration);
+
+        System.out.printf("%10s %9s %12s %14s %12s %12s %12s %8s%n", "aircraft", "airports", "trips/s",
+                "bytes/aircraft", "tick avg ms", "tick max ms", "late max ms", "skipped");
+        for (String scale : (scales == null ? "10,100,1000,10000,100000,1000000" : scales).split(",")) {
+            SimulationConfig config = scaleConfig(properties, Integer.parseInt(scale.trim()));
+            runScalePoint(config, warmupSeconds, durationSeconds);
+        }
+    }
+
+    // Derives the configuration for one scale point, honouring any explicit overrides
+    private static SimulationConfig scaleConfig(Properties base, int fleetSize) {
+        Properties properties = SimulationConfig.with(base, SimulationConfig.KEY_AIRCRAFT, fleetSize);
+        if (!base.containsKey(SimulationConfig.KEY_AIRPORTS)) {
+            int airports = Math.max(10, Math.min(100_000, fleetSize / 10));
+            properties = SimulationConfig.with(properties, SimulationConfig.KEY_AIRPORTS, airports);
+        }
+        int airports = Integer.parseInt(properties.getProperty(SimulationConfig.KEY_AIRPORTS));
+        double side = Math.max(10.0, Math.ceil(Math.sqrt(airports / AIRPORTS_PER_UNIT_AREA)));
+        if (!base.containsKey(SimulationConfig.KEY_WORLD_WIDTH)) {
+            properties = SimulationConfig.with(properties, SimulationConfig.KEY_WORLD_WIDTH, side);
+        }
+        if (!base.containsKey(SimulationConfig.KEY_WORLD_HEIGHT)) {
+            properties = SimulationConfig.with(properties, SimulationConfig.KEY_WORLD_HEIGHT, side);
+        }
+        if (!base.containsKey(SimulationConfig.KEY_SEED)) {
+            properties = SimulationConfig.with(properties, SimulationConfig.KEY_SEED, 42);
+        }
+        return new SimulationConfig(properties);
+    }
+
+    private static void runScalePoint(SimulationConfig config, long warmupSeconds, long durationSeconds)
+            throws InterruptedException {
+        AirportManager airportManager = new AirportManager(config.getWorldWidth(), config.getWorldHeight(),
+                config.getAirportCount(), config.getSeed());
+        airportManager.setupAirports();
+        int[][] neighbours = findNeighbours(airportManager);
+        Statistics statistics = new Statistics();
+
+        long heapBefore = usedHeap();
+        InstantServicing servicing = new InstantServicing();
+        AircraftManager aircraftManager = new AircraftManager(airportManager, servicing, statistics,
+                config.getFleetSize(), config.getTickRate());
+        long heapAfter = usedHeap();
+
+        Random random = new Random(config.getSeed());
+        aircraftManager.getSimulationEngine().addTickListener(
+                (tick, deltaSeconds) -> servicing.redispatch(aircraftManager, neighbours, random));
+        for (Aircraft aircraft : aircraftManager.getAircraftList()) {
+            aircraftManager.handleFlightRequest(hop(aircraft.getOriginAirport().getId(), neighbours, random));
+        }
+
+        SimulationEngine engine = aircraftManager.getSimulationEngine();
+        aircraftManager.startPlaneMovementUpdates();
+        TimeUnit.SECONDS.sleep(warmupSeconds);
+        engine.resetTickStatistics();
+        long tripsBefore = aircraftManager.getFleetSnapshot().getCompletedTripsCount();
+        long skippedBefore = engine.getSkippedTicks();
+        long start = System.nanoTime();
+        TimeUnit.SECONDS.sleep(durationSeconds);
+        long trips = aircraftManager.getFleetSnapshot().getCompletedTripsCount() - tripsBefore;
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        aircraftManager.shutdown();
+
+        System.out.printf("%10d %9d %12.1f %14.1f %12.3f %12.3f %12.3f %8d%n",
+                config.getFleetSize(), config.getAirportCount(), trips / elapsed,
+                config.getFleetSize() == 0 ? 0.0 : (double) (heapAfter - heapBefore) / config.getFleetSize(),
+                engine.getAverageTickDurationNanos() / 1e6, engine.getMaxTickDurationNanos() / 1e6,
+                engine.getMaxTickLatenessNanos() / 1e6, engine.getSkippedTicks() - skippedBefore);
+    }
+
+    // Lists, for each airport id, the other airports within HOP_RADIUS of it
+    private static int[][] findNeighbours(AirportManager airportManager) {
+        List<Airport> airports = airportManager.getAirports();
+        int[][] neighbours = new int[airports.size()][];
+        for (Airport airport : airports) {
+            List<Airport> nearby = airportManager.getAirportsWithinRadius(airport.getX(), airport.getY(), HOP_RADIUS);
+            neighbours[airport.getId()] = nearby.stream()
+                    .mapToInt(Airport::getId)
+                    .filter(id -> id != airport.getId())
+                    .toArray();
+        }
+        return neighbours;
+    }
+
+    // Creates a request from the given airport to a random nearby one (or any other, if none are near)
+    private static FlightRequest hop(int originAirportId, int[][] neighbours, Random random) {
+        int[] nearby = neighbours[originAirportId];
+        int destination;
+        if (nearby.length > 0) {
+            destination = nearby[random.nextInt(nearby.length)];
+        } else {
+            destination = random.nextInt(neighbours.length - 1);
+            if (destination >= originAirportId) {
+                destination++;
+            }
+        }
+        return new FlightRequest(0, 0, 0, originAirportId, destination);
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc(); // NOPMD - the benchmark needs a settled heap to measure per-aircraft memory
+            TimeUnit.MILLISECONDS.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Stands in for the external servicing processes: landed aircraft are collected on the engine
+     * thread, and then serviced and re-dispatched in bulk at the end of the same tick.
+     */
+    private static final class InstantServicing extends FlightServicingManager {
+        private final Deque<Aircraft> landed = new ArrayDeque<>();
+
+        private InstantServicing() {
+            super((airportId, aircraftId) -> { });
+        }
+
+        @Override
+        public void addAircraftForServicing(Aircraft aircraft) {
+            landed.add(aircraft); // Only ever called from the engine thread, during a tick
+        }
+
+        private void redispatch(AircraftManager aircraftManager, int[][] neighbours, Random random) {
+            Aircraft aircraft = landed.poll();
+            while (aircraft != null) {
+                Airport airport = aircraft.getOriginAirport();
+                aircraftManager.completeServicing(aircraft, airport);
+                aircraftManager.handleFlightRequest(hop(airport.getId(), neighbours, random));
+                aircraft = landed.poll();
+            }
+        }
+    }
+}
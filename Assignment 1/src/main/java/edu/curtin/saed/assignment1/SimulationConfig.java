@@ -0,0 +1,305 @@
+package edu.curtin.saed.assignment1;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The scale of a simulation run: world size, airport and aircraft counts, tick rate and thread
+ * pool sizes. Settings come from an optional properties file and/or command-line options, with
+ * the command line taking precedence:
+ *
+ *   --config=scenario.properties --airports=500 --aircraft=10000 --tick.rate=20
+ *
+ * Recognised keys are listed as the KEY_ constants below; any other key is rejected, so that a
+ * misspelt setting fails at start-up rather than silently leaving its default in place. Anything
+ * not given keeps the default (a 10 x 10 world with 10 airports and 10 aircraft, ticking 10 times
+ * a second).
+ */
+public final class SimulationConfig {
+
+    public static final String KEY_CONFIG_FILE = "config";
+    public static final String KEY_WORLD_WIDTH = "world.width";
+    public static final String KEY_WORLD_HEIGHT = "world.height";
+    public static final String KEY_AIRPORTS = "airports";
+    public static final String KEY_AIRCRAFT = "aircraft";
+    public static final String KEY_TICK_RATE = "tick.rate";
+    public static final String KEY_SEED = "seed";
+    public static final String KEY_REQUEST_THREADS = "request.threads";
+    public static final String KEY_SERVICING_THREADS = "servicing.threads";
+    public static final String KEY_REQUEST_SOURCE = "request.source";
+    public static final String KEY_REQUEST_REPLAY_FILE = "request.replay.file";
+    public static final String KEY_SERVICING_BACKEND = "servicing.backend";
+    public static final String KEY_SERVICING_WORKERS = "servicing.workers";
+    public static final String KEY_EXECUTION_MODE = "execution.mode";
+    public static final String KEY_REQUEST_QUEUE_CAPACITY = "request.queue.capacity";
+    public static final String KEY_REQUEST_OVERFLOW = "request.overflow";
+    public static final String KEY_METRICS_PORT = "metrics.port";
+    public static final String KEY_METRICS_AIRPORTS = "metrics.airports";
+    public static final String KEY_UI_MAX_FPS = "ui.max.fps";
+    public static final String KEY_UI_LOG_CAPACITY = "ui.log.capacity";
+    private static final Set<String> KEYS = Set.of(KEY_CONFIG_FILE, KEY_WORLD_WIDTH, KEY_WORLD_HEIGHT, KEY_AIRPORTS,
+            KEY_AIRCRAFT, KEY_TICK_RATE, KEY_SEED, KEY_REQUEST_THREADS, KEY_SERVICING_THREADS, KEY_REQUEST_SOURCE,
+            KEY_REQUEST_REPLAY_FILE, KEY_SERVICING_BACKEND, KEY_SERVICING_WORKERS, KEY_EXECUTION_MODE,
+            KEY_REQUEST_QUEUE_CAPACITY, KEY_REQUEST_OVERFLOW, KEY_METRICS_PORT, KEY_METRICS_AIRPORTS, KEY_UI_MAX_FPS,
+            KEY_UI_LOG_CAPACITY);
+
+    // Where flight requests come from
+    public enum RequestSourceType { PROCESS, IN_PROCESS, REPLAY }
+
+    // What services landed aircraft
+    public enum ServicingBackendType { PROCESS, WORKERS, IN_PROCESS }
+
+    private final double worldWidth;
+    private final double worldHeight;
+    private final int airportCount;
+    private final int fleetSize;
+    private final double tickRate;
+    private final long seed;
+    private final int requestThreads;
+    private final int servicingThreads;
+    private final RequestSourceType requestSource;
+    private final String requestReplayFile;
+    private final ServicingBackendType servicingBackend;
+    private final int servicingWorkers;
+    private final ExecutionMode executionMode;
+    private final int requestQueueCapacity;
+    private final BoundedRequestQueue.OverflowPolicy requestOverflowPolicy;
+    private final int metricsPort;
+    private final int metricsAirports;
+    private final double uiMaxFps;
+    private final int uiLogCapacity;
+
+    // Constructor for the default scenario
+    public SimulationConfig() {
+        this(new Properties());
+    }
+
+    // Constructor reading settings from properties, falling back to defaults for missing keys
+    public SimulationConfig(Properties properties) {
+        Set<String> unknown = new TreeSet<>(properties.stringPropertyNames());
+        unknown.removeAll(KEYS);
+        require(unknown.isEmpty(), "Unknown setting(s) " + unknown + "; recognised settings are " + new TreeSet<>(KEYS));
+
+        this.worldWidth = getDouble(properties, KEY_WORLD_WIDTH, 10.0);
+        this.worldHeight = getDouble(properties, KEY_WORLD_HEIGHT, 10.0);
+        this.airportCount = getInt(properties, KEY_AIRPORTS, 10);
+        this.fleetSize = getInt(properties, KEY_AIRCRAFT, 10);
+        this.tickRate = getDouble(properties, KEY_TICK_RATE, 10.0);
+        this.seed = getLong(properties, KEY_SEED, System.nanoTime());
+        this.requestThreads = getInt(properties, KEY_REQUEST_THREADS, 1);
+        this.servicingThreads = getInt(properties, KEY_SERVICING_THREADS, 0);
+        this.requestSource = getEnum(properties, KEY_REQUEST_SOURCE, RequestSourceType.class, RequestSourceType.PROCESS);
+        this.requestReplayFile = properties.getProperty(KEY_REQUEST_REPLAY_FILE);
+        this.servicingBackend = getEnum(properties, KEY_SERVICING_BACKEND, ServicingBackendType.class,
+                ServicingBackendType.PROCESS);
+        this.servicingWorkers = getInt(properties, KEY_SERVICING_WORKERS, 2);
+        this.executionMode = getEnum(properties, KEY_EXECUTION_MODE, ExecutionMode.class, ExecutionMode.PLATFORM);
+        this.requestQueueCapacity = getInt(properties, KEY_REQUEST_QUEUE_CAPACITY, 32);
+        this.requestOverflowPolicy = getEnum(properties, KEY_REQUEST_OVERFLOW, BoundedRequestQueue.OverflowPolicy.class,
+                BoundedRequestQueue.OverflowPolicy.DROP_OLDEST);
+        this.metricsPort = getInt(properties, KEY_METRICS_PORT, 0);
+        this.metricsAirports = getInt(properties, KEY_METRICS_AIRPORTS, 10);
+        this.uiMaxFps = getDouble(properties, KEY_UI_MAX_FPS, 0.0);
+        this.uiLogCapacity = getInt(properties, KEY_UI_LOG_CAPACITY, 10_000);
+
+        require(worldWidth > 0.0 && worldHeight > 0.0, "World size must be positive");
+        require(airportCount >= 2, "At least 2 airports are needed");
+        require(fleetSize >= 0, "Aircraft count must not be negative");
+        require(tickRate > 0.0, "Tick rate must be positive");
+        require(requestThreads >= 1, "At least 1 request thread is needed");
+        require(servicingThreads >= 0, "Servicing thread count must not be negative (0 means unbounded)");
+        require(requestSource != RequestSourceType.REPLAY || requestReplayFile != null,
+                "request.source=replay needs request.replay.file");
+        require(servicingWorkers >= 1, "At least 1 servicing worker is needed");
+        require(requestQueueCapacity >= 1, "Request queue capacity must be at least 1");
+        require(metricsPort >= 0 && metricsPort <= 65_535, "Metrics port must be between 0 (off) and 65535");
+        require(metricsAirports >= 0, "Metrics airport count must not be negative (0 means none)");
+        require(uiMaxFps >= 0.0, "UI frame rate must not be negative (0 means the display's refresh rate)");
+        require(uiLogCapacity >= 1, "Event log capacity must be at least 1");
+    }
+
+    /**
+     * Builds a configuration from command-line options of the form --key=value. A --config=path
+     * option names a properties file that is read first; the other options then override it.
+     */
+    public static SimulationConfig fromArgs(String[] args) throws IOException {
+        return new SimulationConfig(parseArgs(args));
+    }
+
+    // Parses --key=value options (loading any --config file) into a Properties object
+    public static Properties parseArgs(String[] args) throws IOException {
+        Properties overrides = new Properties();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || arg.indexOf('=') < 0) {
+                throw new IllegalArgumentException("Expected --key=value, got: " + arg);
+            }
+            int split = arg.indexOf('=');
+            overrides.setProperty(arg.substring(2, split), arg.substring(split + 1));
+        }
+
+        Properties properties = new Properties();
+        String configFile = overrides.getProperty(KEY_CONFIG_FILE);
+        if (configFile != null) {
+            Path path = Paths.get(configFile);
+            try (InputStream in = Files.newInputStream(path)) {
+                properties.load(in);
+            }
+        }
+        properties.putAll(overrides);
+        return properties;
+    }
+
+    // Returns a copy of the given properties with one setting replaced
+    public static Properties with(Properties properties, String key, Object value) {
+        Properties copy = new Properties();
+        copy.putAll(properties);
+        copy.setProperty(key, String.valueOf(value));
+        return copy;
+    }
+
+    public double getWorldWidth() {
+        return worldWidth;
+    }
+
+    public double getWorldHeight() {
+        return worldHeight;
+    }
+
+    public int getAirportCount() {
+        return airportCount;
+    }
+
+    public int getFleetSize() {
+        return fleetSize;
+    }
+
+    public double getTickRate() {
+        return tickRate;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    // Returns the number of threads dispatching flight requests (shared by all airports)
+    public int getRequestThreads() {
+        return requestThreads;
+    }
+
+    // Returns the size of the servicing thread pool, or 0 for an unbounded (cached) pool
+    public int getServicingThreads() {
+        return servicingThreads;
+    }
+
+    public RequestSourceType getRequestSource() {
+        return requestSource;
+    }
+
+    // Returns the file replayed when the request source is REPLAY, or null
+    public String getRequestReplayFile() {
+        return requestReplayFile;
+    }
+
+    public ServicingBackendType getServicingBackend() {
+        return servicingBackend;
+    }
+
+    // Returns the number of long-lived worker processes used by the WORKERS servicing backend
+    public int getServicingWorkers() {
+        return servicingWorkers;
+    }
+
+    // Returns the kind of thread (platform or virtual) used for blocking intake and servicing work
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    // Returns the number of requests each airport holds while waiting for an aircraft
+    public int getRequestQueueCapacity() {
+        return requestQueueCapacity;
+    }
+
+    // Returns what happens to a request arriving at a full queue
+    public BoundedRequestQueue.OverflowPolicy getRequestOverflowPolicy() {
+        return requestOverflowPolicy;
+    }
+
+    // Returns the local port serving Prometheus metrics, or 0 if the endpoint is off
+    public int getMetricsPort() {
+        return metricsPort;
+    }
+
+    // Returns how many of the busiest airports get per-airport Prometheus series (0 for none)
+    public int getMetricsAirports() {
+        return metricsAirports;
+    }
+
+    // Returns the most UI refreshes per second, or 0 for the display's refresh rate
+    public double getUiMaxFps() {
+        return uiMaxFps;
+    }
+
+    // Returns the number of recent events the GUI's event log keeps
+    public int getUiLogCapacity() {
+        return uiLogCapacity;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("world=%.1fx%.1f airports=%d aircraft=%d tickRate=%.1f seed=%d",
+                worldWidth, worldHeight, airportCount, fleetSize, tickRate, seed);
+    }
+
+    private static void require(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+
+    // Reads an enum value, accepting any case and '-' in place of '_' (e.g. "in-process")
+    private static <E extends Enum<E>> E getEnum(Properties properties, String key, Class<E> type, E defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid value for " + key + ": " + value, e);
+        }
+    }
+
+    private static double getDouble(Properties properties, String key, double defaultValue) {
+        String value = properties.getProperty(key);
+        try {
+            return value == null ? defaultValue : Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for " + key + ": " + value, e);
+        }
+    }
+
+    private static int getInt(Properties properties, String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        try {
+            return value == null ? defaultValue : Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid integer for " + key + ": " + value, e);
+        }
+    }
+
+    private static long getLong(Properties properties, String key, long defaultValue) {
+        String value = properties.getProperty(key);
+        try {
+            return value == null ? defaultValue : Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid integer for " + key + ": " + value, e);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package edu.curtin.saed.assignment1;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Drives the whole simulation from a single thread using a fixed timestep. Every tick advances
+ * simulated time by exactly 1 / tickRate seconds and calls each registered TickListener once, so
+ * the cost of a tick is one pass over the fleet rather than one sleeping thread per aircraft.
+ *
+ * The engine records how long each tick took and how late it started relative to its schedule.
+ * If the engine falls more than MAX_CATCH_UP_TICKS behind, it skips ahead instead of bursting.
+ * The engine can be paused, freezing simulated time, and resumed without a catch-up burst.
+ */
+public class SimulationEngine implements Runnable {
+
+    private static final Logger LOGGER = Logger.getLogger(SimulationEngine.class.getName());
+    private static final int MAX_CATCH_UP_TICKS = 5;
+
+    // Callback invoked once per simulation tick
+    public interface TickListener {
+        void onTick(long tick, double deltaSeconds);
+    }
+
+    private final List<TickListener> tickListeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong tickCount = new AtomicLong(0);
+    private final AtomicLong skippedTicks = new AtomicLong(0);
+    private volatile double tickRate;
+    private volatile boolean running;
+    private volatile boolean paused;
+    private volatile long lastTickDurationNanos;
+    private volatile long maxTickDurationNanos;
+    private volatile long lastTickLatenessNanos;
+    private volatile long maxTickLatenessNanos;
+    private volatile long totalTickDurationNanos;
+    private volatile long measuredTicks;
+    private Thread engineThread;
+
+    // Constructor
+    public SimulationEngine(double tickRate) {
+        setTickRate(tickRate);
+    }
+
+    public void addTickListener(TickListener listener) {
+        tickListeners.add(listener);
+    }
+
+    public void removeTickListener(TickListener listener) {
+        tickListeners.remove(listener);
+    }
+
+    // Starts the engine thread, if it is not already running
+    public void start() {
+        synchronized (this) {
+            if (running) {
+                return;
+            }
+            running = true;
+            engineThread = new Thread(this, "SimulationEngine");
+            engineThread.setDaemon(true);
+            engineThread.start();
+        }
+        LOGGER.info(() -> String.format("Simulation engine started at %.1f ticks/s", tickRate));
+    }
+
+    // Stops the engine thread and waits for the current tick to finish
+    public void stop() {
+        Thread thread;
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            thread = engineThread;
+            engineThread = null;
+        }
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Preserve interruption status
+        }
+        LOGGER.info(() -> "Simulation engine stopped after " + tickCount.get() + " ticks.");
+    }
+
+    @Override
+    public void run() {
+        long nextTickNanos = System.nanoTime();
+        while (running) {
+            if (paused) {
+                LockSupport.park(this); // Until resume() or stop()
+                nextTickNanos = System.nanoTime(); // Simulated time does not pass while paused
+                continue;
+            }
+            long periodNanos = getTickPeriodNanos();
+            long now = System.nanoTime();
+            if (now < nextTickNanos) {
+                LockSupport.parkNanos(nextTickNanos - now); // Wait for the next scheduled tick
+                continue;
+            }
+
+            long lateness = now - nextTickNanos;
+            long tick = tickCount.incrementAndGet();
+            double deltaSeconds = periodNanos / 1e9;
+            for (TickListener listener : tickListeners) {
+                try {
+                    listener.onTick(tick, deltaSeconds);
+                } catch (RuntimeException e) { // NOPMD - one faulty listener must not stop the engine
+                    LOGGER.log(Level.SEVERE, e, () -> "Tick listener failed on tick " + tick);
+                }
+            }
+            long duration = System.nanoTime() - now;
+            recordTick(duration, lateness);
+
+            nextTickNanos += periodNanos;
+            long behind = System.nanoTime() - nextTickNanos;
+            if (behind > periodNanos * MAX_CATCH_UP_TICKS) {
+                // Too far behind to catch up; resynchronise with the wall clock instead
+                skippedTicks.addAndGet(behind / periodNanos);
+                nextTickNanos = System.nanoTime();
+            }
+        }
+    }
+
+    private void recordTick(long durationNanos, long latenessNanos) {
+        lastTickDurationNanos = durationNanos;
+        totalTickDurationNanos += durationNanos; // Only ever written by the engine thread
+        measuredTicks++;
+        lastTickLatenessNanos = latenessNanos;
+        if (durationNanos > maxTickDurationNanos) {
+            maxTickDurationNanos = durationNanos;
+        }
+        if (latenessNanos > maxTickLatenessNanos) {
+            maxTickLatenessNanos = latenessNanos;
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Freezes the simulation after the current tick, until resume() is called
+    public void pause() {
+        if (!paused) {
+            paused = true;
+            LOGGER.info(() -> "Simulation engine paused at tick " + tickCount.get());
+        }
+    }
+
+    // Continues a paused simulation from where it stopped
+    public void resume() {
+        Thread thread;
+        synchronized (this) {
+            if (!paused) {
+                return;
+            }
+            paused = false;
+            thread = engineThread;
+        }
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+        LOGGER.info(() -> "Simulation engine resumed at tick " + tickCount.get());
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    public double getTickRate() {
+        return tickRate;
+    }
+
+    // Changes the tick rate; takes effect from the next tick
+    public void setTickRate(double tickRate) {
+        if (!(tickRate > 0.0)) {
+            throw new IllegalArgumentException("Tick rate must be positive: " + tickRate);
+        }
+        this.tickRate = tickRate;
+    }
+
+    public long getTickPeriodNanos() {
+        return (long) (1e9 / tickRate);
+    }
+
+    public long getTickCount() {
+        return tickCount.get();
+    }
+
+    // Returns the number of ticks dropped because the engine fell too far behind
+    public long getSkippedTicks() {
+        return skippedTicks.get();
+    }
+
+    public long getLastTickDurationNanos() {
+        return lastTickDurationNanos;
+    }
+
+    // Returns the mean tick duration since the engine started or the statistics were last reset
+    public long getAverageTickDurationNanos() {
+        long ticks = measuredTicks;
+        return ticks == 0 ? 0 : totalTickDurationNanos / ticks;
+    }
+
+    // Clears the max/average tick timings, e.g. after a warm-up period
+    public void resetTickStatistics() {
+        maxTickDurationNanos = 0;
+        maxTickLatenessNanos = 0;
+        totalTickDurationNanos = 0;
+        measuredTicks = 0;
+    }
+
+    public long getMaxTickDurationNanos() {
+        return maxTickDurationNanos;
+    }
+
+    // Returns how late the last tick started compared to its fixed schedule
+    public long getLastTickLatenessNanos() {
+        return lastTickLatenessNanos;
+    }
+
+    public long getMaxTickLatenessNanos() {
+        return maxTickLatenessNanos;
+    }
+}
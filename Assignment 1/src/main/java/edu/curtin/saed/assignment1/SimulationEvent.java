@@ -0,0 +1,91 @@
+package edu.curtin.saed.assignment1;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * One entry of the EventLog: something that happened to an aircraft, or a note about the
+ * simulation as a whole. Immutable, so the GUI can keep and draw events while others are logged.
+ */
+public final class SimulationEvent {
+
+    // What happened
+    public enum Type {
+        DEPARTED,
+        LANDED,
+        SERVICED,
+        SIMULATION
+    }
+
+    public static final int NONE = -1; // For an aircraft or airport the event does not concern
+
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    private final long timeMillis;
+    private final Type type;
+    private final int aircraftId;
+    private final int airportId;
+    private final int destinationAirportId;
+    private final String message;
+
+    // Constructor; airportId is where the event happened (or the departure airport)
+    public SimulationEvent(long timeMillis, Type type, int aircraftId, int airportId, int destinationAirportId,
+                           String message) {
+        this.timeMillis = timeMillis;
+        this.type = type;
+        this.aircraftId = aircraftId;
+        this.airportId = airportId;
+        this.destinationAirportId = destinationAirportId;
+        this.message = message;
+    }
+
+    // Returns a note about the simulation as a whole, timed now
+    public static SimulationEvent simulation(String message) {
+        return new SimulationEvent(System.currentTimeMillis(), Type.SIMULATION, NONE, NONE, NONE, message);
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getAircraftId() {
+        return aircraftId;
+    }
+
+    public int getAirportId() {
+        return airportId;
+    }
+
+    public int getDestinationAirportId() {
+        return destinationAirportId;
+    }
+
+    // Returns whether the event happened at (or is a flight to or from) the given airport
+    public boolean concernsAirport(int id) {
+        return airportId == id || destinationAirportId == id;
+    }
+
+    // Formats the event as one line of the log, e.g. "12:00:01.250  Plane 4 landed at Airport 2"
+    @Override
+    public String toString() {
+        String time = TIME_FORMAT.format(Instant.ofEpochMilli(timeMillis));
+        switch (type) {
+            case DEPARTED:
+                return String.format("%s  Plane %d departed Airport %d for Airport %d", time, aircraftId, airportId,
+                        destinationAirportId);
+            case LANDED:
+                return String.format("%s  Plane %d landed at Airport %d", time, aircraftId, airportId);
+            case SERVICED:
+                return String.format("%s  Plane %d serviced at Airport %d", time, aircraftId, airportId);
+            case SIMULATION:
+            default:
+                return time + "  " + message;
+        }
+    }
+}
@@ -0,0 +1,353 @@
+package edu.curtin.saed.assignment1;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Registers the simulation's management beans on the platform MBean server, so that a simulator
+ * running without a visible window can be watched and controlled over JMX:
+ *
+ *   type=Simulation                fleet counts, latencies, tick timings; pause, resume, tick rate
+ *   type=RequestQueues             intake and per-airport request queues
+ *   type=Executor,name=...         request dispatch, servicing and scheduler thread pools
+ *
+ * Every attribute is read on demand from the live objects, so nothing is updated on the
+ * simulation's own threads for JMX's sake.
+ */
+public final class SimulationMBeans {
+
+    private static final Logger LOGGER = Logger.getLogger(SimulationMBeans.class.getName());
+    private static final String DOMAIN = SimulationMBeans.class.getPackageName();
+
+    private final List<ObjectName> registered = new ArrayList<>();
+
+    private SimulationMBeans() {
+    }
+
+    /**
+     * Registers the beans for the given controller. Registration failures (for example a second
+     * simulation in the same JVM) are logged, and the beans that could be registered are kept.
+     */
+    public static SimulationMBeans register(PlaneController controller, Statistics statistics) {
+        SimulationMBeans beans = new SimulationMBeans();
+        beans.add("type=Simulation", new Simulation(controller, statistics));
+        beans.add("type=RequestQueues", new RequestQueues(controller));
+        for (Map.Entry<String, ExecutorMXBean> executor : executorBeans(controller).entrySet()) {
+            beans.add("type=Executor,name=" + executor.getKey(), executor.getValue());
+        }
+        return beans;
+    }
+
+    // Returns views of the controller's thread pools, by name; also used by PrometheusExporter
+    /* default */ static Map<String, ExecutorMXBean> executorBeans(PlaneController controller) {
+        Map<String, ExecutorMXBean> executors = new LinkedHashMap<>();
+        executors.put("RequestDispatch", new RequestDispatchExecutor(controller));
+        executors.put("Servicing", new ServicingExecutor(controller.getFlightServicingManager()));
+        executors.put("Scheduler", new PoolExecutor(controller::getScheduler));
+        return executors;
+    }
+
+    private void add(String properties, Object bean) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = new ObjectName(DOMAIN + ":" + properties);
+            server.registerMBean(bean, name);
+            registered.add(name);
+        } catch (JMException e) {
+            LOGGER.log(Level.WARNING, () -> "Could not register MBean " + properties + ": " + e.getMessage());
+        }
+    }
+
+    // Removes every bean registered by register()
+    public void unregister() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName name : registered) {
+            try {
+                server.unregisterMBean(name);
+            } catch (JMException e) {
+                LOGGER.log(Level.FINE, () -> "Could not unregister MBean " + name + ": " + e.getMessage());
+            }
+        }
+        registered.clear();
+    }
+
+    public List<ObjectName> getObjectNames() {
+        return Collections.unmodifiableList(registered);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static final class Simulation implements SimulationMXBean {
+        private final PlaneController controller;
+        private final Statistics statistics;
+
+        private Simulation(PlaneController controller, Statistics statistics) {
+            this.controller = controller;
+            this.statistics = statistics;
+        }
+
+        private SimulationEngine engine() {
+            return controller.getAircraftManager().getSimulationEngine();
+        }
+
+        @Override
+        public int getInFlightCount() {
+            return statistics.getInFlightCount();
+        }
+
+        @Override
+        public int getServicingCount() {
+            return statistics.getServicingCount();
+        }
+
+        @Override
+        public int getCompletedTripsCount() {
+            return statistics.getCompletedTripsCount();
+        }
+
+        @Override
+        public double getRequestWaitP50Millis() {
+            return millis(statistics.getRequestWaitTimes().getP50Nanos());
+        }
+
+        @Override
+        public double getRequestWaitP99Millis() {
+            return millis(statistics.getRequestWaitTimes().getP99Nanos());
+        }
+
+        @Override
+        public double getServicingTimeP50Millis() {
+            return millis(statistics.getServicingTimes().getP50Nanos());
+        }
+
+        @Override
+        public double getServicingTimeP99Millis() {
+            return millis(statistics.getServicingTimes().getP99Nanos());
+        }
+
+        @Override
+        public double getTickRate() {
+            return engine().getTickRate();
+        }
+
+        @Override
+        public void setTickRate(double tickRate) {
+            controller.setTickRate(tickRate);
+        }
+
+        @Override
+        public long getTickCount() {
+            return engine().getTickCount();
+        }
+
+        @Override
+        public long getSkippedTicks() {
+            return engine().getSkippedTicks();
+        }
+
+        @Override
+        public double getLastTickDurationMillis() {
+            return millis(engine().getLastTickDurationNanos());
+        }
+
+        @Override
+        public double getAverageTickDurationMillis() {
+            return millis(engine().getAverageTickDurationNanos());
+        }
+
+        @Override
+        public double getMaxTickDurationMillis() {
+            return millis(engine().getMaxTickDurationNanos());
+        }
+
+        @Override
+        public double getMaxTickLatenessMillis() {
+            return millis(engine().getMaxTickLatenessNanos());
+        }
+
+        @Override
+        public boolean isPaused() {
+            return controller.isPaused();
+        }
+
+        @Override
+        public void pause() {
+            controller.pauseSimulation();
+        }
+
+        @Override
+        public void resume() {
+            controller.resumeSimulation();
+        }
+
+        @Override
+        public void resetTickStatistics() {
+            engine().resetTickStatistics();
+        }
+    }
+
+    private static final class RequestQueues implements RequestQueuesMXBean {
+        private final PlaneController controller;
+
+        private RequestQueues(PlaneController controller) {
+            this.controller = controller;
+        }
+
+        @Override
+        public int getIntakeQueueSize() {
+            FlightRequestManager intake = controller.getFlightRequestManager();
+            return intake == null ? 0 : intake.getQueuedRequestCount();
+        }
+
+        @Override
+        public long getIntakeDroppedCount() {
+            FlightRequestManager intake = controller.getFlightRequestManager();
+            return intake == null ? 0 : intake.getDroppedRequestCount();
+        }
+
+        @Override
+        public long getWaitingRequestCount() {
+            return controller.getAircraftManager().getQueuedRequestCount();
+        }
+
+        @Override
+        public long getDroppedRequestCount() {
+            return controller.getAircraftManager().getDroppedRequestCount();
+        }
+
+        @Override
+        public int getQueueCapacity() {
+            return controller.getConfig().getRequestQueueCapacity();
+        }
+
+        @Override
+        public String getOverflowPolicy() {
+            return controller.getConfig().getRequestOverflowPolicy().name();
+        }
+
+        @Override
+        public Map<Integer, Long> getQueueDepthByAirport() {
+            FlightDispatcher dispatcher = controller.getAircraftManager().getDispatcher();
+            Map<Integer, Long> depths = new TreeMap<>();
+            for (Airport airport : controller.getAirportManager().getAirports()) {
+                depths.put(airport.getId(), dispatcher.getQueueDepth(airport.getId()));
+            }
+            return depths;
+        }
+    }
+
+    // The dispatch threads of the request intake (absent while the simulation is stopped)
+    private static final class RequestDispatchExecutor implements ExecutorMXBean {
+        private final PlaneController controller;
+
+        private RequestDispatchExecutor(PlaneController controller) {
+            this.controller = controller;
+        }
+
+        @Override
+        public int getActiveCount() {
+            FlightRequestManager intake = controller.getFlightRequestManager();
+            return intake == null ? 0 : intake.getActiveDispatcherCount();
+        }
+
+        @Override
+        public long getQueuedTaskCount() {
+            FlightRequestManager intake = controller.getFlightRequestManager();
+            return intake == null ? 0 : intake.getQueuedRequestCount();
+        }
+
+        @Override
+        public int getPoolSize() {
+            FlightRequestManager intake = controller.getFlightRequestManager();
+            return intake == null ? 0 : intake.getDispatchThreadCount();
+        }
+
+        @Override
+        public long getCompletedTaskCount() {
+            FlightRequestManager intake = controller.getFlightRequestManager();
+            return intake == null ? 0 : intake.getHandledRequestCount();
+        }
+    }
+
+    // Servicing, whichever backend runs it: landed aircraft waiting, and services in progress
+    private static final class ServicingExecutor implements ExecutorMXBean {
+        private final FlightServicingManager servicing;
+
+        private ServicingExecutor(FlightServicingManager servicing) {
+            this.servicing = servicing;
+        }
+
+        @Override
+        public int getActiveCount() {
+            return servicing.getInServiceCount();
+        }
+
+        @Override
+        public long getQueuedTaskCount() {
+            return servicing.getWaitingCount();
+        }
+
+        @Override
+        public int getPoolSize() {
+            return -1; // Depends on the backend: processes, worker processes or a timer
+        }
+
+        @Override
+        public long getCompletedTaskCount() {
+            return servicing.getServicedCount();
+        }
+    }
+
+    // Any ThreadPoolExecutor (including scheduled ones); -1 for other executors or before it exists
+    private static final class PoolExecutor implements ExecutorMXBean {
+        private final Supplier<? extends ExecutorService> executorSource;
+
+        private PoolExecutor(Supplier<? extends ExecutorService> executorSource) {
+            this.executorSource = executorSource;
+        }
+
+        private ThreadPoolExecutor pool() {
+            ExecutorService executor = executorSource.get();
+            return executor instanceof ThreadPoolExecutor ? (ThreadPoolExecutor) executor : null;
+        }
+
+        @Override
+        public int getActiveCount() {
+            ThreadPoolExecutor pool = pool();
+            return pool == null ? -1 : pool.getActiveCount();
+        }
+
+        @Override
+        public long getQueuedTaskCount() {
+            ThreadPoolExecutor pool = pool();
+            return pool == null ? -1 : pool.getQueue().size();
+        }
+
+        @Override
+        public int getPoolSize() {
+            ThreadPoolExecutor pool = pool();
+            return pool == null ? -1 : pool.getPoolSize();
+        }
+
+        @Override
+        public long getCompletedTaskCount() {
+            ThreadPoolExecutor pool = pool();
+            return pool == null ? -1 : pool.getCompletedTaskCount();
+        }
+    }
+}
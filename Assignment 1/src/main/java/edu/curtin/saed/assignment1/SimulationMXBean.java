@@ -0,0 +1,51 @@
+package edu.curtin.saed.assignment1;
+
+/**
+ * Management interface for the running simulation, registered as
+ * edu.curtin.saed.assignment1:type=Simulation. Shows the fleet counts, request and servicing
+ * latencies and simulation engine timings, and lets an operator pause, resume and retime the
+ * simulation from JConsole or JDK Mission Control.
+ */
+public interface SimulationMXBean {
+
+    int getInFlightCount();
+
+    int getServicingCount();
+
+    int getCompletedTripsCount();
+
+    double getRequestWaitP50Millis();
+
+    double getRequestWaitP99Millis();
+
+    double getServicingTimeP50Millis();
+
+    double getServicingTimeP99Millis();
+
+    // Simulation ticks per second; writable
+    double getTickRate();
+
+    void setTickRate(double tickRate);
+
+    long getTickCount();
+
+    long getSkippedTicks();
+
+    double getLastTickDurationMillis();
+
+    double getAverageTickDurationMillis();
+
+    double getMaxTickDurationMillis();
+
+    double getMaxTickLatenessMillis();
+
+    boolean isPaused();
+
+    // Freezes simulated time; requests still queue and servicing carries on
+    void pause();
+
+    void resume();
+
+    // Clears the maximum and average tick timings
+    void resetTickStatistics();
+}
@@ -0,0 +1,104 @@
+package edu.curtin.saed.assignment1;
+
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.imageio.ImageIO;
+
+/**
+ * Caches for the images drawn by GridArea, so that a frame costs only blits.
+ *
+ * getImage() decodes each resource image once per JVM and shares the result. An instance then
+ * keeps sprites: each source image pre-scaled to the current icon size in pixels and pre-rotated
+ * to one of HEADING_BUCKETS headings. Sprites are made on first use with bicubic interpolation,
+ * and all of them are dropped when the icon size changes (that is, when the window is resized).
+ * Instances are not thread-safe; each is used by one rendering thread.
+ */
+public final class SpriteCache {
+
+    public static final int HEADING_BUCKETS = 72; // 5 degrees apart
+    private static final double DEGREES_PER_BUCKET = 360.0 / HEADING_BUCKETS;
+    private static final Map<String, Image> IMAGES = new ConcurrentHashMap<>();
+
+    private final Map<Image, BufferedImage[]> sprites = new IdentityHashMap<>();
+    private int spriteSize = -1;
+
+    // Returns the decoded image for a classpath resource such as "plane.png", decoding it only once
+    public static Image getImage(String resource) {
+        return IMAGES.computeIfAbsent(resource, name -> {
+            URL url = SpriteCache.class.getClassLoader().getResource(name);
+            if (url == null) {
+                throw new IllegalArgumentException("No such image resource: " + name);
+            }
+            try {
+                return ImageIO.read(url);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not decode " + name, e);
+            }
+        });
+    }
+
+    /**
+     * Returns the given image scaled to fit a square of sizePixels and rotated (clockwise, about
+     * its centre) to the nearest heading bucket. The sprite is larger than sizePixels, so that
+     * rotated corners are not clipped; getPadding() gives the margin on each side.
+     */
+    public BufferedImage getSprite(Image image, int sizePixels, double rotationDegrees) {
+        if (sizePixels != spriteSize) {
+            sprites.clear(); // Resized: every sprite must be redrawn at the new size
+            spriteSize = sizePixels;
+        }
+        BufferedImage[] headings = sprites.computeIfAbsent(image, key -> new BufferedImage[HEADING_BUCKETS]);
+        int bucket = headingBucket(rotationDegrees);
+        BufferedImage sprite = headings[bucket];
+        if (sprite == null) {
+            sprite = render(image, sizePixels, bucket * DEGREES_PER_BUCKET);
+            headings[bucket] = sprite;
+        }
+        return sprite;
+    }
+
+    // Returns the margin added on each side of a sprite of the given icon size
+    public static int getPadding(int sizePixels) {
+        return (canvasSize(sizePixels) - sizePixels) / 2;
+    }
+
+    private static int headingBucket(double rotationDegrees) {
+        double normalised = ((rotationDegrees % 360.0) + 360.0) % 360.0;
+        return (int) Math.round(normalised / DEGREES_PER_BUCKET) % HEADING_BUCKETS;
+    }
+
+    private static int canvasSize(int sizePixels) {
+        int canvas = (int) Math.ceil(sizePixels * Math.sqrt(2.0)); // Room for any rotation
+        return canvas + ((canvas - sizePixels) & 1); // Keep the padding whole on both sides
+    }
+
+    private static BufferedImage render(Image image, int sizePixels, double rotationDegrees) {
+        int canvas = canvasSize(sizePixels);
+        BufferedImage sprite = new BufferedImage(canvas, canvas, BufferedImage.TYPE_INT_ARGB);
+        double pixelWidth = image.getWidth(null);
+        double pixelHeight = image.getHeight(null);
+        double scale = sizePixels / Math.max(pixelWidth, pixelHeight); // Fit the longer side, as GridAreaIcon does
+
+        Graphics2D gfx = sprite.createGraphics();
+        try {
+            gfx.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            gfx.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            gfx.translate(canvas / 2.0, canvas / 2.0);
+            gfx.rotate(Math.toRadians(rotationDegrees));
+            gfx.scale(scale, scale);
+            gfx.translate(-pixelWidth / 2.0, -pixelHeight / 2.0);
+            gfx.drawImage(image, 0, 0, null);
+        } finally {
+            gfx.dispose();
+        }
+        return sprite;
+    }
+}
@@ -1,29 +1,33 @@
 package edu.curtin.saed.assignment1;
 
-import javax.swing.*;
-import java.awt.*;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.logging.Level;
-import java.util.logging.Logger;
-import java.util.List;
 
 
+/**
+ * Live fleet counters and timing histograms, kept up to date by subscribing to aircraft state
+ * transitions (AircraftStateStore.TransitionListener) rather than by polling the fleet.
+ *
+ * Three timings are recorded, each into a LatencyHistogram: how long a request waits for an
+ * aircraft (recorded by FlightDispatcher), how long a flight takes from takeoff to landing, and how
+ * long an aircraft takes from landing to being serviced. Flight times are in simulated time, taken
+ * from the flight's departure and arrival times in the store, so a pause does not stretch them.
+ * Per-airport counters and rates are kept in AirportMetrics.
+ */
 public class Statistics {
 
+    private static final double NANOS_PER_SECOND = 1e9;
+
     private final AtomicInteger inFlightCount = new AtomicInteger(0);
     private final AtomicInteger servicingCount = new AtomicInteger(0);
     private final AtomicInteger completedTripsCount = new AtomicInteger(0);
-
-    private final AircraftManager aircraftManager;
-    private final ScheduledExecutorService scheduler;
+    private final LatencyHistogram requestWaitTimes = new LatencyHistogram();
+    private final LatencyHistogram flightTimes = new LatencyHistogram();
+    private final LatencyHistogram servicingTimes = new LatencyHistogram();
+    private volatile AirportMetrics airportMetrics;
+    private volatile AircraftStateStore stateStore;
 
     // Constructor
-    public Statistics(AircraftManager aircraftManager) {
-        this.aircraftManager = aircraftManager;
-        this.scheduler = Executors.newSingleThreadScheduledExecutor();
+    public Statistics() {
         resetStatistics();
     }
 
@@ -32,7 +36,7 @@ public class Statistics {
         return inFlightCount.get();
     }
 
-    // Returns the number of aircraft currently being serviced
+    // Returns the number of aircraft currently being serviced (including those just landed)
     public int getServicingCount() {
         return servicingCount.get();
     }
@@ -42,65 +46,73 @@ public class Statistics {
         return completedTripsCount.get();
     }
 
-    // Updates the statistics based on the current state of the aircraft
-    public void updateStatistics() {
-        // for number of in-flight aircraft
-        inFlightCount.set((int) aircraftManager.getAircraftList().stream()
-            .filter(Aircraft::isInFlight)
-            .count());
-
-        // for total number of completed trips
-        completedTripsCount.set(aircraftManager.getAircraftList().stream()
-            .mapToInt(Aircraft::getCompletedTripsCount)
-            .sum());
-    }
-
-    // Starts collecting statistics at a fixed rate
-    public void startStatisticsCollection() {
-        // Schedule the updateStatistics method to run every second
-        scheduler.scheduleAtFixedRate(() -> {
-            updateStatistics(); // Update statistics
-        }, 0, 1, TimeUnit.SECONDS);
-    }
-
-    // Stops collecting statistics and shuts down the scheduler
-    public void stopStatisticsCollection() {
-        scheduler.shutdown();
-        try {
-            // Wait for up to 1 second for the scheduler to terminate
-            if (!scheduler.awaitTermination(1, TimeUnit.SECONDS)) {
-                scheduler.shutdownNow(); // Force shutdown if not terminated in time
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt(); // Restore interrupted status
-            scheduler.shutdownNow(); // Force shutdown if interrupted
-        }
+    // Attaches the per-airport breakdown kept by the fleet's dispatcher
+    public void setAirportMetrics(AirportMetrics airportMetrics) {
+        this.airportMetrics = airportMetrics;
+    }
+
+    // Attaches the store whose departure and arrival times give each flight's time
+    public void setStateStore(AircraftStateStore stateStore) {
+        this.stateStore = stateStore;
+    }
+
+    // Returns the per-airport breakdown, or null if no fleet is attached
+    public AirportMetrics getAirportMetrics() {
+        return airportMetrics;
+    }
+
+    // Returns the histogram of request-to-dispatch times, which the dispatcher records into
+    public LatencyHistogram getRequestWaitHistogram() {
+        return requestWaitTimes;
+    }
+
+    // Returns the live histogram of takeoff-to-landing times
+    public LatencyHistogram getFlightTimeHistogram() {
+        return flightTimes;
+    }
+
+    // Returns the live histogram of landing-to-serviced times
+    public LatencyHistogram getServicingTimeHistogram() {
+        return servicingTimes;
     }
 
-    // Increment the count of servicing aircraft when servicing starts
-    public void onAircraftServicingStarted() {
-        servicingCount.incrementAndGet();
+    // Returns the distribution of request-to-dispatch times so far
+    public LatencyHistogram.Snapshot getRequestWaitTimes() {
+        return requestWaitTimes.snapshot();
     }
 
-    // Decrement the count of servicing aircraft when servicing completes
-    public void onAircraftServicingCompleted() {
-        servicingCount.decrementAndGet();
+    // Returns the distribution of takeoff-to-landing times so far
+    public LatencyHistogram.Snapshot getFlightTimes() {
+        return flightTimes.snapshot();
     }
 
-    // Increment the count of in-flight aircraft when an aircraft starts flight
-    public void onAircraftStartedFlight() {
-        inFlightCount.incrementAndGet();
+    // Returns the distribution of landing-to-serviced times so far
+    public LatencyHistogram.Snapshot getServicingTimes() {
+        return servicingTimes.snapshot();
     }
 
-    // Update counts when an aircraft lands
-    public void onAircraftLanded() {
-        inFlightCount.decrementAndGet();
-        completedTripsCount.incrementAndGet();
+    // Updates the counters and timings for one aircraft state transition
+    public void onTransition(int slot, AircraftState from, AircraftState to, long nanosInPreviousState) {
+        if (to == AircraftState.IN_FLIGHT) {
+            inFlightCount.incrementAndGet();
+        } else if (to == AircraftState.LANDED) {
+            inFlightCount.decrementAndGet();
+            completedTripsCount.incrementAndGet();
+            servicingCount.incrementAndGet();
+            flightTimes.record(flightNanos(slot, nanosInPreviousState));
+        } else if (from == AircraftState.SERVICING) {
+            servicingCount.decrementAndGet();
+            servicingTimes.record(nanosInPreviousState); // LANDED is left at once, so this is from landing
+        }
     }
 
-    // Increment the count of completed trips
-    public void onAircraftCompletedTrip() {
-        completedTripsCount.incrementAndGet();
+    // Returns the simulated length of the flight that just landed, or the time spent in flight if no store is attached
+    private long flightNanos(int slot, long nanosInFlight) {
+        AircraftStateStore store = stateStore;
+        if (store == null) {
+            return nanosInFlight;
+        }
+        return Math.round((store.getArrivalTime(slot) - store.getDepartureTime(slot)) * NANOS_PER_SECOND);
     }
 
     // Reset all statistics counters to zero
@@ -108,6 +120,8 @@ public class Statistics {
         inFlightCount.set(0);
         servicingCount.set(0);
         completedTripsCount.set(0);
+        requestWaitTimes.reset();
+        flightTimes.reset();
+        servicingTimes.reset();
     }
 }
-
@@ -0,0 +1,93 @@
+package edu.curtin.saed.assignment1;
+
+import java.awt.DisplayMode;
+import java.awt.GraphicsEnvironment;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import javax.swing.Timer;
+
+/**
+ * Collapses any number of "state changed" signals into at most one UI refresh per frame, so the
+ * cost of the UI is bounded by the frame rate rather than by how busy the simulation is.
+ *
+ * signal() may be called from any thread, as often as events happen (every tick, assignment and
+ * servicing completion). It only sets a flag, and a signal arriving while one is already pending
+ * is counted as dropped. A Swing timer checks the flag once per frame interval and, if it is set,
+ * runs the refresh on the Event Dispatch Thread.
+ */
+public class UiUpdateCoalescer {
+
+    private static final double DEFAULT_FPS = 60.0;
+
+    private final Runnable refresh;
+    private final double maxFps;
+    private final Timer timer;
+    private final AtomicBoolean pending = new AtomicBoolean();
+    private final LongAdder signals = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+
+    /**
+     * Constructor; maxFps caps the refresh rate, and 0 means the display's refresh rate (one
+     * refresh per vsync interval), or 60 if that cannot be found.
+     */
+    public UiUpdateCoalescer(double maxFps, Runnable refresh) {
+        this.refresh = refresh;
+        this.maxFps = maxFps > 0.0 ? maxFps : displayRefreshRate();
+        this.timer = new Timer(Math.max(1, (int) Math.round(1000.0 / this.maxFps)), event -> onFrame());
+        this.timer.setCoalesce(true); // A late frame is not followed by a catch-up burst
+    }
+
+    // Returns the refresh rate of the default screen, or DEFAULT_FPS if it is unknown
+    public static double displayRefreshRate() {
+        if (GraphicsEnvironment.isHeadless()) {
+            return DEFAULT_FPS;
+        }
+        DisplayMode mode = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDisplayMode();
+        int rate = mode.getRefreshRate();
+        return rate == DisplayMode.REFRESH_RATE_UNKNOWN || rate <= 0 ? DEFAULT_FPS : rate;
+    }
+
+    // Starts refreshing on signals; call on the Event Dispatch Thread
+    public void start() {
+        timer.start();
+    }
+
+    // Stops refreshing, after a last refresh for any pending signal; call on the Event Dispatch Thread
+    public void stop() {
+        timer.stop();
+        onFrame();
+    }
+
+    // Asks for a refresh at the next frame; any thread
+    public void signal() {
+        signals.increment();
+        if (pending.get() || !pending.compareAndSet(false, true)) { // Read first, to avoid contended writes
+            dropped.increment(); // Already covered by the pending refresh
+        }
+    }
+
+    private void onFrame() {
+        if (pending.getAndSet(false)) {
+            refreshes.increment();
+            refresh.run();
+        }
+    }
+
+    public double getMaxFps() {
+        return maxFps;
+    }
+
+    public long getSignalCount() {
+        return signals.sum();
+    }
+
+    // Returns the number of signals collapsed into an already pending refresh
+    public long getDroppedSignalCount() {
+        return dropped.sum();
+    }
+
+    public long getRefreshCount() {
+        return refreshes.sum();
+    }
+}
@@ -0,0 +1,240 @@
+package edu.curtin.saed.assignment1;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Services aircraft on a fixed pool of long-lived worker processes (see ServicingWorker), launched
+ * and warmed up by start() so that no landing pays for a JVM start-up. Requests go to the worker
+ * with the fewest outstanding requests, and each worker's replies are read by one thread that
+ * completes the matching callbacks. No thread waits on an individual service.
+ *
+ * If a worker process dies, its outstanding requests are reported as failed and it is not used
+ * again; the other workers carry on. Requests outstanding when stop() closes a worker are simply
+ * abandoned, not reported, so the caller can hand them out again after a restart.
+ */
+public class WorkerPoolServicingBackend implements ServicingBackend {
+
+    private static final Logger LOGGER = Logger.getLogger(WorkerPoolServicingBackend.class.getName());
+    private static final long STARTUP_TIMEOUT_SECONDS = 30;
+    private static final String WORKER_HEAP = "-Xmx32m";
+
+    private final int poolSize;
+    private final ExecutionMode executionMode;
+    private final List<Worker> workers = new ArrayList<>();
+    private final AtomicLong nextRequestId = new AtomicLong();
+
+    // Constructor
+    public WorkerPoolServicingBackend(int poolSize) {
+        this(poolSize, ExecutionMode.PLATFORM);
+    }
+
+    // Constructor that reads the workers' replies with the given kind of thread
+    public WorkerPoolServicingBackend(int poolSize, ExecutionMode executionMode) {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("Worker pool size must be at least 1: " + poolSize);
+        }
+        this.poolSize = poolSize;
+        this.executionMode = executionMode.effective();
+    }
+
+    @Override
+    public void start() throws IOException {
+        synchronized (workers) {
+            if (!workers.isEmpty()) {
+                return;
+            }
+            for (int i = 0; i < poolSize; i++) {
+                workers.add(new Worker(i, executionMode));
+            }
+        }
+        for (Worker worker : workers) {
+            worker.awaitReady();
+        }
+        LOGGER.info(() -> String.format("%d servicing workers ready.", poolSize));
+    }
+
+    @Override
+    public void service(int airportId, int aircraftId, ServicingCallback callback) {
+        Worker worker = leastLoadedWorker();
+        if (worker == null) {
+            LOGGER.warning(() -> "No live servicing worker for Aircraft " + aircraftId + " at Airport " + airportId);
+            callback.onServiced(airportId, aircraftId, false);
+            return;
+        }
+        worker.send(nextRequestId.incrementAndGet(), airportId, aircraftId, callback);
+    }
+
+    private Worker leastLoadedWorker() {
+        Worker best = null;
+        synchronized (workers) {
+            for (Worker worker : workers) {
+                if (worker.isAlive() && (best == null || worker.outstanding() < best.outstanding())) {
+                    best = worker;
+                }
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public void stop() {
+        List<Worker> toStop;
+        synchronized (workers) {
+            toStop = new ArrayList<>(workers);
+            workers.clear();
+        }
+        for (Worker worker : toStop) {
+            worker.stop();
+        }
+    }
+
+    @Override
+    public String describe() {
+        return poolSize + " servicing worker processes";
+    }
+
+    // A request sent to a worker and not yet answered
+    private static final class Pending {
+        private final int airportId;
+        private final int aircraftId;
+        private final ServicingCallback callback;
+
+        private Pending(int airportId, int aircraftId, ServicingCallback callback) {
+            this.airportId = airportId;
+            this.aircraftId = aircraftId;
+            this.callback = callback;
+        }
+
+        private void complete(boolean success) {
+            callback.onServiced(airportId, aircraftId, success);
+        }
+    }
+
+    // One worker process, the writer for its requests and the thread reading its replies
+    private static final class Worker {
+        private final int index;
+        private final Process process;
+        private final BufferedWriter writer;
+        private final Map<Long, Pending> pending = new ConcurrentHashMap<>();
+        private final CountDownLatch ready = new CountDownLatch(1);
+        private volatile boolean alive = true;
+        private volatile boolean stopping; // Set by stop(), so the end of output is not a failure
+
+        private Worker(int index, ExecutionMode executionMode) throws IOException {
+            this.index = index;
+            String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+            this.process = new ProcessBuilder(java, WORKER_HEAP, "-cp", System.getProperty("java.class.path"),
+                    ServicingWorker.class.getName())
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start();
+            this.writer = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+            executionMode.startThread("ServicingWorker-" + index, this::readReplies);
+        }
+
+        private void awaitReady() throws IOException {
+            try {
+                if (!ready.await(STARTUP_TIMEOUT_SECONDS, TimeUnit.SECONDS) || !alive) {
+                    throw new IOException("Servicing worker " + index + " did not start");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt(); // Restore interrupted status
+                throw new IOException("Interrupted while starting servicing worker " + index, e);
+            }
+        }
+
+        private boolean isAlive() {
+            return alive;
+        }
+
+        private int outstanding() {
+            return pending.size();
+        }
+
+        private void send(long requestId, int airportId, int aircraftId, ServicingCallback callback) {
+            pending.put(requestId, new Pending(airportId, aircraftId, callback));
+            try {
+                synchronized (writer) {
+                    writer.write(ServicingWorker.SERVICE + " " + requestId + " " + airportId + " " + aircraftId);
+                    writer.newLine();
+                    writer.flush();
+                }
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, () -> "Lost servicing worker " + index + ": " + e.getMessage());
+                Pending request = pending.remove(requestId);
+                if (request != null) {
+                    request.complete(false);
+                }
+            }
+        }
+
+        // Matches each reply line to its pending request until the worker's output ends
+        private void readReplies() {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    handleReply(line.trim().split("\\s+"));
+                }
+            } catch (IOException e) {
+                LOGGER.fine(() -> "Servicing worker " + index + " output closed: " + e.getMessage());
+            }
+            alive = false;
+            ready.countDown(); // Release start() if the worker died before it was ready
+            if (!stopping) {
+                pending.values().forEach(request -> request.complete(false));
+            }
+            pending.clear();
+        }
+
+        private void handleReply(String... parts) {
+            if (ServicingWorker.READY.equals(parts[0])) {
+                ready.countDown();
+                return;
+            }
+            if (parts.length < 2) {
+                return;
+            }
+            try {
+                Pending request = pending.remove(Long.parseLong(parts[1]));
+                if (request != null) {
+                    request.complete(ServicingWorker.DONE.equals(parts[0]));
+                }
+            } catch (NumberFormatException e) {
+                LOGGER.fine(() -> "Ignoring unexpected reply from servicing worker " + index);
+            }
+        }
+
+        private void stop() {
+            stopping = true;
+            alive = false;
+            try {
+                writer.close(); // End of input tells the worker to exit
+            } catch (IOException e) {
+                LOGGER.fine(() -> "Error closing servicing worker " + index + ": " + e.getMessage());
+            }
+            try {
+                if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt(); // Restore interrupted status
+                process.destroyForcibly();
+            }
+        }
+    }
+}